@@ -0,0 +1,50 @@
+#!/usr/bin/env bash
+# Runs the suite as N shards in parallel on this machine, then merges their reports -
+# the same thing N CI nodes do, for trying out shard counts and strategies locally.
+#
+#   scripts/run-shards.sh 4 timing [extra mvn args...]
+#
+# Per-shard reports and durations go to target/shards/<i>/, the merged report to target/shards/merged/.
+# The merged test-durations.properties is copied to target/test-durations.properties for the next run.
+set -u
+
+SHARDS=${1:-2}
+STRATEGY=${2:-hash}
+shift $(( $# > 2 ? 2 : $# ))
+
+cd "$(dirname "$0")/.."
+OUT=target/shards
+rm -rf "$OUT"
+mkdir -p "$OUT"
+
+mvn -B -q test-compile "$@" || exit 1
+
+pids=()
+for (( i = 0; i < SHARDS; i++ )); do
+  mkdir -p "$OUT/$i"
+  mvn -B surefire:test \
+    -DshardIndex="$i" -DshardTotal="$SHARDS" -DshardStrategy="$STRATEGY" \
+    -Dsurefire.reportsDirectory="$OUT/$i" \
+    -DtestDurationsOut="$OUT/$i/test-durations.properties" \
+    -Dmaven.test.failure.ignore=true \
+    "$@" > "$OUT/$i/mvn.log" 2>&1 &
+  pids+=($!)
+  echo "shard $i/$SHARDS started (log: $OUT/$i/mvn.log)"
+done
+for pid in "${pids[@]}"; do
+  wait "$pid"
+done
+
+shard_dirs=()
+for (( i = 0; i < SHARDS; i++ )); do
+  shard_dirs+=("$OUT/$i")
+done
+mvn -B -q exec:java -Dexec.classpathScope=test \
+  -Dexec.mainClass=com.phorestdemo.sharding.ShardReportMerger \
+  -Dexec.args="$OUT/merged ${shard_dirs[*]}"
+status=$?
+
+if [ -f "$OUT/merged/test-durations.properties" ]; then
+  cp "$OUT/merged/test-durations.properties" target/test-durations.properties
+fi
+exit $status
@@ -0,0 +1,41 @@
+package com.phorestdemo.benchmarks;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What BaseTest pays per test before the first page-object call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ContextCreationBenchmark {
+
+    @Benchmark
+    public Page newContextAndPage(WorkerState worker) {
+        BrowserContext context = worker.browser().newContext();
+        Page page = context.newPage();
+        context.close();
+        return page;
+    }
+
+    @Benchmark
+    public Page newContextPageAndNavigate(StorefrontState storefront, WorkerState worker) {
+        BrowserContext context = worker.browser().newContext();
+        Page page = context.newPage();
+        page.navigate(storefront.baseUrl());
+        context.close();
+        return page;
+    }
+}
@@ -0,0 +1,65 @@
+package com.phorestdemo.benchmarks;
+
+import com.microsoft.playwright.BrowserContext;
+import com.phorestdemo.pages.VoucherFormSnapshot;
+import com.phorestdemo.pages.VoucherPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the read-back getters the tests assert on, with the page already loaded,
+ * against reading the whole form at once with snapshot().
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LocatorReadBenchmark {
+
+    @State(Scope.Thread)
+    public static class LoadedVoucherPage {
+        BrowserContext context;
+        VoucherPage voucherPage;
+
+        @Setup(Level.Trial)
+        public void load(StorefrontState storefront, WorkerState worker) {
+            context = worker.browser().newContext();
+            voucherPage = new VoucherPage(context.newPage(), storefront.baseUrl());
+            voucherPage.navigate();
+            voucherPage.selectGiftAmount("150", null);
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public String getTotalCost(LoadedVoucherPage state) {
+        return state.voucherPage.getTotalCost();
+    }
+
+    @Benchmark
+    public String getVoucherIconAmount(LoadedVoucherPage state) {
+        return state.voucherPage.getVoucherIconAmount();
+    }
+
+    @Benchmark
+    public VoucherFormSnapshot snapshot(LoadedVoucherPage state) {
+        return state.voucherPage.snapshot();
+    }
+}
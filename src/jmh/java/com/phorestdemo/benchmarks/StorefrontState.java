@@ -0,0 +1,36 @@
+package com.phorestdemo.benchmarks;
+
+import com.phorestdemo.browser.BrowserPool;
+import com.phorestdemo.stub.StorefrontStub;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * One storefront stub and one browser pool per benchmark trial, shared by all JMH threads.
+ */
+@State(Scope.Benchmark)
+public class StorefrontState {
+
+    StorefrontStub storefront;
+    BrowserPool browserPool;
+
+    @Setup(Level.Trial)
+    public void start(BenchmarkParams params) {
+        storefront = StorefrontStub.start(0);
+        browserPool = new BrowserPool(params.getThreads());
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        browserPool.close();
+        storefront.close();
+    }
+
+    String baseUrl() {
+        return storefront.getBaseUrl();
+    }
+}
@@ -0,0 +1,49 @@
+package com.phorestdemo.benchmarks;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end purchase flows against the storefront stub, one fresh context per flow
+ * as in BaseTest. Reports flows/second and seconds per flow; use -t for thread count.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class VoucherFlowBenchmark {
+
+    @Benchmark
+    public String presetAmountSendToOther(StorefrontState storefront, WorkerState worker) {
+        try (BrowserContext context = worker.browser().newContext()) {
+            Page page = context.newPage();
+            return VoucherFlows.presetAmountSendToOther(page, storefront.baseUrl());
+        }
+    }
+
+    @Benchmark
+    public String otherAmountSendToMe(StorefrontState storefront, WorkerState worker) {
+        try (BrowserContext context = worker.browser().newContext()) {
+            Page page = context.newPage();
+            return VoucherFlows.otherAmountSendToMe(page, storefront.baseUrl());
+        }
+    }
+
+    @Benchmark
+    public String editThenPay(StorefrontState storefront, WorkerState worker) {
+        try (BrowserContext context = worker.browser().newContext()) {
+            Page page = context.newPage();
+            return VoucherFlows.editThenPay(page, storefront.baseUrl());
+        }
+    }
+}
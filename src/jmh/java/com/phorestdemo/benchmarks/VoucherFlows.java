@@ -0,0 +1,85 @@
+package com.phorestdemo.benchmarks;
+
+import com.microsoft.playwright.Page;
+import com.phorestdemo.pages.ReceiptPage;
+import com.phorestdemo.pages.SummaryPage;
+import com.phorestdemo.pages.VoucherPage;
+
+/**
+ * The purchase flows from VoucherTests, minus the assertions and email checks.
+ * Each returns the voucher code from the receipt page.
+ */
+final class VoucherFlows {
+
+    private VoucherFlows() {
+    }
+
+    static String presetAmountSendToOther(Page page, String baseUrl) {
+        VoucherPage voucherPage = new VoucherPage(page, baseUrl);
+        SummaryPage summaryPage = new SummaryPage(page, baseUrl);
+        ReceiptPage receiptPage = new ReceiptPage(page, baseUrl);
+
+        voucherPage.navigate();
+        voucherPage.selectGiftAmount("150", null);
+        voucherPage.clickSendToOtherTab();
+        voucherPage.fillPurchaserEmailInputBox("bench.purchaser@phorestdemo.test");
+        voucherPage.fillFirstName("Jane");
+        voucherPage.fillLastName("Doe");
+        voucherPage.fillRecipientEmailInputBox("bench.recipient@phorestdemo.test");
+        voucherPage.fillMessageForRecipientInputBox("Auto message for voucher");
+        voucherPage.clickCheckoutButton();
+
+        summaryPage.clickConfirmDetailsButton();
+        summaryPage.enterPaymentDetails("4111 1111 1111 1111", "12/26", "999");
+        summaryPage.clickPayButton();
+
+        return receiptPage.getVoucherCode();
+    }
+
+    static String otherAmountSendToMe(Page page, String baseUrl) {
+        VoucherPage voucherPage = new VoucherPage(page, baseUrl);
+        SummaryPage summaryPage = new SummaryPage(page, baseUrl);
+        ReceiptPage receiptPage = new ReceiptPage(page, baseUrl);
+
+        voucherPage.navigate();
+        voucherPage.selectGiftAmount("Other", "123");
+        voucherPage.clickSendToMeTab();
+        voucherPage.fillPurchaserEmailInputBox("bench.me@phorestdemo.test");
+        voucherPage.fillFirstName("John");
+        voucherPage.fillLastName("Doe");
+        voucherPage.clickCheckoutButton();
+
+        summaryPage.clickConfirmDetailsButton();
+        summaryPage.enterPaymentDetails("4111 1111 1111 1111", "12/26", "999");
+        summaryPage.clickPayButton();
+
+        return receiptPage.getVoucherCode();
+    }
+
+    static String editThenPay(Page page, String baseUrl) {
+        VoucherPage voucherPage = new VoucherPage(page, baseUrl);
+        SummaryPage summaryPage = new SummaryPage(page, baseUrl);
+        ReceiptPage receiptPage = new ReceiptPage(page, baseUrl);
+
+        voucherPage.navigate();
+        voucherPage.selectGiftAmount("150", null);
+        voucherPage.clickSendToOtherTab();
+        voucherPage.fillPurchaserEmailInputBox("testPurchaser@test.com");
+        voucherPage.fillFirstName("Tom");
+        voucherPage.fillLastName("Doyle");
+        voucherPage.fillRecipientEmailInputBox("testRecipient@test.com");
+        voucherPage.fillMessageForRecipientInputBox("Auto message for voucher");
+        voucherPage.clickCheckoutButton();
+
+        summaryPage.clickConfirmDetailsButton();
+        summaryPage.clickEditButton();
+
+        voucherPage.fillPurchaserEmailInputBox("editPurchaser@test.com");
+        voucherPage.clickCheckoutButton();
+        summaryPage.clickConfirmDetailsButton();
+        summaryPage.enterPaymentDetails("4111 1111 1111 1111", "12/26", "999");
+        summaryPage.clickPayButton();
+
+        return receiptPage.getVoucherCode();
+    }
+}
@@ -0,0 +1,34 @@
+package com.phorestdemo.benchmarks;
+
+import com.microsoft.playwright.Browser;
+import com.phorestdemo.browser.BrowserWorker;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * The browser worker a JMH thread keeps for the whole trial, like a JUnit worker thread does.
+ */
+@State(Scope.Thread)
+public class WorkerState {
+
+    private StorefrontState storefront;
+    private BrowserWorker worker;
+
+    @Setup(Level.Trial)
+    public void lease(StorefrontState storefront) {
+        this.storefront = storefront;
+        this.worker = storefront.browserPool.lease();
+    }
+
+    @TearDown(Level.Trial)
+    public void release() {
+        storefront.browserPool.release(worker);
+    }
+
+    Browser browser() {
+        return worker.getBrowser();
+    }
+}
@@ -0,0 +1,258 @@
+package com.phorestdemo.browser;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.microsoft.playwright.Playwright;
+import com.microsoft.playwright.impl.driver.Driver;
+import com.phorestdemo.config.ConfigReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A long-lived local process holding launched browsers, so test runs connect to them instead of
+ * starting their own (browserDaemon=true).
+ *
+ * The daemon extracts the Playwright driver once and runs its launch-server command for each
+ * browser in daemonBrowsers. Each browser server listens on a websocket on a free loopback port,
+ * with a random path that a client has to know to connect.
+ * The endpoints, the driver directory, the Playwright version and the launch settings are written
+ * to daemonDir/daemon.json. daemonDir and its files are readable by their owner only, since the
+ * paths are all that guards the browsers. A test JVM connects through BrowserType.connect when that file belongs
+ * to a live daemon with the same Playwright version and settings, and launches its own browsers
+ * otherwise. It also points playwright.cli.dir at the daemon's driver so it doesn't extract its own.
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.phorestdemo.browser.BrowserDaemon
+ *     [-Dexec.args=start|stop|status]
+ *
+ * start reuses a running daemon whose version and settings match, and restarts it otherwise.
+ */
+public final class BrowserDaemon {
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private static final boolean POSIX = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+    private static final Set<PosixFilePermission> OWNER_DIR = PosixFilePermissions.fromString("rwx------");
+    private static final Set<PosixFilePermission> OWNER_FILE = PosixFilePermissions.fromString("rw-------");
+
+    private static boolean warned;
+
+    private BrowserDaemon() {
+    }
+
+    /**
+     * What a daemon serves, read back by test JVMs.
+     */
+    record State(long pid, String version, String settings, String driverDir,
+                 Map<String, String> endpoints, String startedAt) {
+
+        boolean isAlive() {
+            return ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String command = args.length > 0 ? args[0] : "start";
+        Path dir = Paths.get(ConfigReader.getDaemonDir());
+        List<String> browsers = ConfigReader.getDaemonBrowsers();
+        switch (command) {
+            case "start":
+                start(dir, browsers);
+                break;
+            case "stop":
+                System.out.println(stop(dir) ? "[daemon] stopped" : "[daemon] not running");
+                break;
+            case "status":
+                System.out.println(read(dir).filter(State::isAlive)
+                        .map(state -> "[daemon] pid " + state.pid() + ", Playwright " + state.version()
+                                + ", " + state.settings() + ", since " + state.startedAt() + ": " + state.endpoints())
+                        .orElse("[daemon] not running"));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown command " + command + ", expected start, stop or status");
+        }
+    }
+
+    /**
+     * The websocket endpoint of the running daemon's browser, if there is a daemon this JVM can use.
+     * Points playwright.cli.dir at the daemon's driver, so Playwright.create() skips extracting one.
+     */
+    public static synchronized Optional<String> endpoint(String browserType) {
+        Optional<State> state = read(Paths.get(ConfigReader.getDaemonDir()));
+        String problem = state.isEmpty() ? "no daemon state in " + ConfigReader.getDaemonDir()
+                : !state.get().isAlive() ? "daemon " + state.get().pid() + " is not running"
+                : !version().equals(state.get().version()) ? "daemon runs Playwright " + state.get().version()
+                        + ", this build " + version()
+                : !settings().equals(state.get().settings()) ? "daemon was started with " + state.get().settings()
+                        + ", this run wants " + settings()
+                : !state.get().endpoints().containsKey(browserType.toLowerCase(Locale.ROOT))
+                        ? "daemon has no " + browserType
+                : null;
+        if (problem != null) {
+            warnOnce("Launching browsers in this JVM: " + problem
+                    + ". (Re)start it with BrowserDaemon start");
+            return Optional.empty();
+        }
+        if (Files.isDirectory(Paths.get(state.get().driverDir()))) {
+            System.setProperty("playwright.cli.dir", state.get().driverDir());
+        }
+        return Optional.of(state.get().endpoints().get(browserType.toLowerCase(Locale.ROOT)));
+    }
+
+    private static void warnOnce(String message) {
+        if (!warned) {
+            warned = true;
+            System.err.println("[daemon] " + message);
+        }
+    }
+
+    private static void start(Path dir, List<String> browsers) throws Exception {
+        Optional<State> running = read(dir).filter(State::isAlive);
+        if (running.isPresent()) {
+            State state = running.get();
+            if (state.version().equals(version()) && state.settings().equals(settings())
+                    && state.endpoints().keySet().containsAll(browsers)) {
+                System.out.println("[daemon] already running (pid " + state.pid() + "): " + state.endpoints());
+                return;
+            }
+            System.out.println("[daemon] restarting: running daemon has Playwright " + state.version()
+                    + ", " + state.settings() + ", " + state.endpoints().keySet());
+            stop(dir);
+        }
+
+        long started = System.nanoTime();
+        // Installs the browsers if needed; the extracted driver lives as long as this process
+        Driver driver = Driver.ensureDriverInstalled(Map.of(), true);
+        Path driverDir = driver.driverPath().getParent();
+        createOwnerOnlyDir(dir);
+
+        List<Process> servers = new ArrayList<>();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            servers.forEach(Process::destroy);
+            read(dir).filter(state -> state.pid() == ProcessHandle.current().pid())
+                    .ifPresent(state -> deleteQuietly(dir.resolve("daemon.json")));
+        }));
+
+        Map<String, String> endpoints = new LinkedHashMap<>();
+        for (String browser : browsers) {
+            Path config = dir.resolve(browser + "-launch.json");
+            Map<String, Object> options = new LinkedHashMap<>();
+            options.put("headless", ConfigReader.isHeadless());
+            options.put("host", "127.0.0.1");
+            options.put("wsPath", "/" + UUID.randomUUID());
+            writeOwnerOnly(config, GSON.toJson(options));
+
+            ProcessBuilder builder = driver.createProcessBuilder();
+            builder.command().addAll(List.of("launch-server", "--browser", browser, "--config", config.toString()));
+            builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+            Process server = builder.start();
+            servers.add(server);
+            endpoints.put(browser, readEndpoint(server, browser));
+        }
+
+        State state = new State(ProcessHandle.current().pid(), version(), settings(), driverDir.toString(),
+                endpoints, Instant.now().toString());
+        writeOwnerOnly(dir.resolve("daemon.json"), GSON.toJson(state));
+        System.out.printf(Locale.ROOT, "[daemon] pid %d ready in %.1f s: %s (stop with BrowserDaemon stop)%n",
+                state.pid(), (System.nanoTime() - started) / 1e9, endpoints);
+
+        // Until stopped, or until a browser server dies and the daemon is no use any more
+        CompletableFuture.anyOf(servers.stream().map(Process::onExit).toArray(CompletableFuture[]::new)).join();
+        System.err.println("[daemon] a browser server exited, shutting down");
+        System.exit(1);
+    }
+
+    // launch-server prints the websocket endpoint once the browser is up
+    private static String readEndpoint(Process server, String browser) throws IOException {
+        BufferedReader output = new BufferedReader(new InputStreamReader(server.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = output.readLine()) != null) {
+            if (line.startsWith("ws://")) {
+                return line.trim();
+            }
+        }
+        throw new IllegalStateException("launch-server for " + browser + " exited without an endpoint");
+    }
+
+    private static boolean stop(Path dir) {
+        Optional<State> state = read(dir).filter(State::isAlive);
+        if (state.isEmpty()) {
+            return false;
+        }
+        ProcessHandle daemon = ProcessHandle.of(state.get().pid()).orElseThrow();
+        daemon.destroy();
+        if (daemon.onExit().completeOnTimeout(null, 10, TimeUnit.SECONDS).join() == null) {
+            daemon.destroyForcibly();
+        }
+        deleteQuietly(dir.resolve("daemon.json"));
+        return true;
+    }
+
+    static Optional<State> read(Path dir) {
+        Path file = dir.resolve("daemon.json");
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return Optional.ofNullable(GSON.fromJson(reader, State.class));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring unreadable " + file + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // An existing daemonDir is left as it is - it may be shared - but the files in it are owner-only
+    private static void createOwnerOnlyDir(Path dir) throws IOException {
+        if (POSIX && !Files.isDirectory(dir)) {
+            Files.createDirectories(dir, PosixFilePermissions.asFileAttribute(OWNER_DIR));
+        } else {
+            Files.createDirectories(dir);
+        }
+    }
+
+    // Created afresh rather than truncated, so the content is never readable under older permissions
+    private static void writeOwnerOnly(Path file, String content) throws IOException {
+        Files.deleteIfExists(file);
+        if (POSIX) {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(OWNER_FILE));
+        }
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+
+    private static String version() {
+        return String.valueOf(Playwright.class.getPackage().getImplementationVersion());
+    }
+
+    // Launch settings a connecting run must agree with; browser choice is checked per endpoint
+    private static String settings() {
+        return "headless=" + ConfigReader.isHeadless();
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Could not delete " + file + ": " + e.getMessage());
+        }
+    }
+}
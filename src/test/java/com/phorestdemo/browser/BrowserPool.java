@@ -0,0 +1,200 @@
+package com.phorestdemo.browser;
+
+import com.phorestdemo.config.ConfigReader;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of {@link BrowserWorker}s shared by all test classes.
+ *
+ * Playwright objects are not thread-safe, so a worker is handed to exactly one
+ * test at a time. Workers are created lazily up to the configured size; once the
+ * pool is full, callers block until another test releases its worker. Hand-offs
+ * go through the pool's monitor, which gives the happens-before Playwright needs
+ * when a worker moves between JUnit threads.
+ *
+ * Each worker runs one browser type. When tests ask for several (browserMatrix),
+ * the slots are shared: a full pool with no idle worker of the wanted type closes
+ * the longest idle worker of another type, provided no one is waiting for that
+ * type, and launches the wanted browser in its slot.
+ */
+public class BrowserPool implements AutoCloseable {
+
+    private static volatile BrowserPool shared;
+
+    private final int capacity;
+    private final Object lock = new Object();
+    // Guarded by lock. Idle workers, longest idle first
+    private final Deque<BrowserWorker> idle = new ArrayDeque<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final Map<String, Integer> waiting = new HashMap<>();
+    private final List<BrowserWorker> all = new CopyOnWriteArrayList<>();
+    private final AtomicInteger switched = new AtomicInteger();
+    private volatile boolean closed;
+
+    public BrowserPool(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Pool capacity must be at least 1, was " + capacity);
+        }
+        this.capacity = capacity;
+        for (int slot = 0; slot < capacity; slot++) {
+            freeSlots.add(slot);
+        }
+    }
+
+    /**
+     * The suite-wide pool, sized from {@link ConfigReader#getWorkerPoolSize()}.
+     */
+    public static BrowserPool shared() {
+        if (shared == null) {
+            synchronized (BrowserPool.class) {
+                if (shared == null) {
+                    shared = new BrowserPool(ConfigReader.getWorkerPoolSize());
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * A worker running {@link ConfigReader#getBrowserType()}.
+     */
+    public BrowserWorker lease() {
+        return lease(ConfigReader.getBrowserType());
+    }
+
+    public BrowserWorker lease(String browserType) {
+        while (true) {
+            BrowserWorker worker = null;
+            BrowserWorker evicted = null;
+            int slot;
+            synchronized (lock) {
+                waiting.merge(browserType, 1, Integer::sum);
+                try {
+                    while (true) {
+                        if (closed) {
+                            throw new IllegalStateException("Browser pool is closed");
+                        }
+                        worker = takeIdle(browserType);
+                        if (worker != null) {
+                            slot = worker.getId();
+                            break;
+                        }
+                        if (!freeSlots.isEmpty()) {
+                            slot = freeSlots.poll();
+                            break;
+                        }
+                        evicted = takeEvictable();
+                        if (evicted != null) {
+                            slot = evicted.getId();
+                            break;
+                        }
+                        lock.wait();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for a browser worker", e);
+                } finally {
+                    waiting.merge(browserType, -1, Integer::sum);
+                }
+            }
+
+            if (worker != null) {
+                if (worker.isHealthy()) {
+                    return worker;
+                }
+                // Browser crashed while idle - replace it in the same slot
+                evicted = worker;
+            } else if (evicted != null) {
+                switched.incrementAndGet();
+            }
+            if (evicted != null) {
+                all.remove(evicted);
+                evicted.close();
+            }
+            try {
+                BrowserWorker created = new BrowserWorker(slot, browserType);
+                all.add(created);
+                return created;
+            } catch (RuntimeException e) {
+                synchronized (lock) {
+                    freeSlots.add(slot);
+                    lock.notifyAll();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private BrowserWorker takeIdle(String browserType) {
+        for (Iterator<BrowserWorker> workers = idle.iterator(); workers.hasNext(); ) {
+            BrowserWorker worker = workers.next();
+            if (worker.getBrowserTypeName().equalsIgnoreCase(browserType)) {
+                workers.remove();
+                return worker;
+            }
+        }
+        return null;
+    }
+
+    // The longest idle worker whose browser type nobody is waiting for
+    private BrowserWorker takeEvictable() {
+        for (Iterator<BrowserWorker> workers = idle.iterator(); workers.hasNext(); ) {
+            BrowserWorker worker = workers.next();
+            if (waiting.getOrDefault(worker.getBrowserTypeName(), 0) == 0) {
+                workers.remove();
+                return worker;
+            }
+        }
+        return null;
+    }
+
+    public void release(BrowserWorker worker) {
+        if (worker == null) {
+            return;
+        }
+        synchronized (lock) {
+            if (!closed) {
+                idle.add(worker);
+                lock.notifyAll();
+                return;
+            }
+        }
+        worker.close();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * How many workers were closed to launch a different browser type in their slot.
+     */
+    public int getSwitched() {
+        return switched.get();
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            idle.clear();
+            lock.notifyAll();
+        }
+        for (BrowserWorker worker : all) {
+            worker.close();
+        }
+        all.clear();
+        if (switched.get() > 0) {
+            System.out.println("[pool] " + switched.get() + " workers switched browser type; a larger workerPoolSize"
+                    + " keeps more browsers of each type launched");
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.phorestdemo.browser;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Playwright;
+import com.phorestdemo.config.ConfigReader;
+
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * One Playwright driver plus the browser it launched, or its connection to the
+ * browser daemon's browser when browserDaemon=true.
+ * Only ever used by a single test at a time - see {@link BrowserPool}.
+ */
+public class BrowserWorker implements AutoCloseable {
+
+    private final int id;
+    private final Playwright playwright;
+    private final Browser browser;
+    private final String browserTypeName;
+
+    private WarmStart warmStart;
+
+    BrowserWorker(int id, String browserTypeName) {
+        this.id = id;
+        this.browserTypeName = browserTypeName.toLowerCase();
+        // Looked up first: it points Playwright at the daemon's already extracted driver
+        Optional<String> daemon = ConfigReader.isBrowserDaemonEnabled()
+                ? BrowserDaemon.endpoint(browserTypeName)
+                : Optional.empty();
+        this.playwright = Playwright.create();
+        BrowserType browserType = resolveBrowserType(playwright, browserTypeName);
+        this.browser = daemon.map(endpoint -> connect(browserType, endpoint)).orElseGet(() -> launch(browserType));
+    }
+
+    private Browser launch(BrowserType browserType) {
+        BrowserType.LaunchOptions options = new BrowserType.LaunchOptions()
+                .setHeadless(ConfigReader.isHeadless());
+        if (ConfigReader.isTraceOnFailureEnabled()) {
+            options.setTracesDir(FailureTraces.recordingDir(id));
+        }
+        return browserType.launch(options);
+    }
+
+    // The daemon's browser, or a launched one if the daemon has gone away since it was checked
+    private Browser connect(BrowserType browserType, String endpoint) {
+        try {
+            return browserType.connect(endpoint);
+        } catch (RuntimeException e) {
+            System.err.println("Could not connect to the browser daemon (worker " + id + "), launching instead: "
+                    + e.getMessage());
+            return launch(browserType);
+        }
+    }
+
+    static BrowserType resolveBrowserType(Playwright playwright, String name) {
+        switch (name.toLowerCase()) {
+            case "firefox":
+                return playwright.firefox();
+            case "webkit":
+                return playwright.webkit();
+            case "chromium":
+            default:
+                return playwright.chromium();
+        }
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    // "chromium", "firefox" or "webkit", as asked for; see resolveBrowserType for unknown names
+    public String getBrowserTypeName() {
+        return browserTypeName;
+    }
+
+    public Playwright getPlaywright() {
+        return playwright;
+    }
+
+    public Browser getBrowser() {
+        return browser;
+    }
+
+    /**
+     * This worker's warm-start snapshot for the given storefront, replaced when the URL changes.
+     */
+    public WarmStart getWarmStart(String baseUrl) {
+        if (warmStart == null || !warmStart.getKey().equals(WarmStart.key(baseUrl, browserTypeName))) {
+            warmStart = new WarmStart(baseUrl, browserTypeName, id,
+                    Pattern.compile(ConfigReader.getWarmStartAssetPattern()));
+        }
+        return warmStart;
+    }
+
+    boolean isHealthy() {
+        return browser.isConnected();
+    }
+
+    @Override
+    public void close() {
+        try {
+            browser.close();
+        } catch (Exception e) {
+            System.err.println("Browser already closed (worker " + id + ")");
+        }
+
+        try {
+            playwright.close();
+        } catch (Exception e) {
+            System.err.println("Playwright already closed (worker " + id + ")");
+        }
+    }
+}
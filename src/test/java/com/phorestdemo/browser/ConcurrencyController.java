@@ -0,0 +1,402 @@
+package com.phorestdemo.browser;
+
+import com.google.gson.GsonBuilder;
+import com.phorestdemo.config.ConfigReader;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits how many browser sessions are active at once, and moves the limit with the machine's
+ * headroom (adaptiveConcurrency=true).
+ *
+ * Sessions wait for a permit on a fair semaphore, so tests queue in arrival order instead of
+ * failing. Every concurrencyInterval the controller looks at the page-object step latency
+ * (p95 over the interval), the system load, the available memory and the memory of the browser
+ * processes this JVM started, then adjusts the limit AIMD-style:
+ *
+ * - any pressure (step p95 over concurrencyStepTarget, load over concurrencyMaxLoadPerCpu x CPUs,
+ *   available memory under concurrencyMinFreeMemory): halve the limit, but only once the previous
+ *   decrease has taken effect (no more sessions active than the limit)
+ * - no pressure and tests waiting: raise the limit by one, up to concurrencyMax
+ *
+ * Every decision is kept. Changes are printed as they happen, the run ends with a summary and
+ * the limit over time, and the full timeline is written to concurrencyReport.
+ */
+public class ConcurrencyController implements AutoCloseable {
+
+    private static volatile ConcurrencyController shared;
+
+    private final boolean enabled;
+    private final int min;
+    private final int max;
+    private final long targetMillis;
+    private final double maxLoad;
+    private final long minFreeBytes;
+    private final long intervalMillis;
+    private final Path report;
+
+    private final LimitSemaphore permits;
+    private final AtomicInteger active = new AtomicInteger();
+    private final Recorder steps = new Recorder(3);
+    private final Histogram waits = new ConcurrentHistogram(3);
+    private final LongAdder sessions = new LongAdder();
+    private final LongAdder waited = new LongAdder();
+    private final List<Decision> decisions = new ArrayList<>();
+    private final long startNanos = System.nanoTime();
+    private ScheduledExecutorService sampler;
+    private Histogram intervalSteps;
+    private volatile int limit;
+
+    public ConcurrencyController(boolean enabled, int min, int max, long targetMillis, double maxLoadPerCpu,
+                                 long minFreeMegabytes, long intervalMillis, Path report) {
+        this.enabled = enabled;
+        this.min = Math.max(1, min);
+        this.max = Math.max(this.min, max);
+        this.targetMillis = targetMillis;
+        this.maxLoad = maxLoadPerCpu * Runtime.getRuntime().availableProcessors();
+        this.minFreeBytes = minFreeMegabytes * 1024 * 1024;
+        this.intervalMillis = intervalMillis;
+        this.report = report;
+        // Start in the middle and let the controller find the level the machine can take
+        this.limit = Math.max(this.min, (this.max + 1) / 2);
+        this.permits = new LimitSemaphore(limit);
+    }
+
+    public static ConcurrencyController shared() {
+        if (shared == null) {
+            synchronized (ConcurrencyController.class) {
+                if (shared == null) {
+                    ConcurrencyController controller = new ConcurrencyController(
+                            ConfigReader.isAdaptiveConcurrencyEnabled(),
+                            ConfigReader.getConcurrencyMin(),
+                            ConfigReader.getConcurrencyMax(),
+                            ConfigReader.getConcurrencyStepTarget(),
+                            ConfigReader.getConcurrencyMaxLoadPerCpu(),
+                            ConfigReader.getConcurrencyMinFreeMemory(),
+                            ConfigReader.getConcurrencyInterval() * 1000,
+                            Paths.get(ConfigReader.getConcurrencyReport()));
+                    controller.start();
+                    shared = controller;
+                }
+            }
+        }
+        return shared;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts adjusting the limit every interval. Does nothing when disabled.
+     */
+    public synchronized void start() {
+        if (!enabled || sampler != null) {
+            return;
+        }
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "concurrency-controller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(this::adjustQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Blocks until the session may start. Pair with {@link #release()}.
+     */
+    public void acquire() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire()) {
+                waited.increment();
+                permits.acquire();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a concurrency permit", e);
+        }
+        waits.recordValue(Math.max(0, (System.nanoTime() - start) / 1_000));
+        sessions.increment();
+        active.incrementAndGet();
+    }
+
+    public void release() {
+        if (!enabled) {
+            return;
+        }
+        active.decrementAndGet();
+        permits.release();
+    }
+
+    /**
+     * A page-object step's duration, the latency the limit is steered by.
+     */
+    public void recordStep(long nanos) {
+        if (enabled) {
+            steps.recordValue(Math.max(1, nanos / 1_000));
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    private void adjustQuietly() {
+        try {
+            adjust();
+        } catch (RuntimeException e) {
+            System.err.println("[concurrency] could not adjust the limit: " + e.getMessage());
+        }
+    }
+
+    /**
+     * One control step: samples the interval's step latency and the machine, then moves the limit.
+     */
+    synchronized Decision adjust() {
+        intervalSteps = steps.getIntervalHistogram(intervalSteps);
+        long p95 = intervalSteps.getTotalCount() == 0 ? -1 : intervalSteps.getValueAtPercentile(95) / 1000;
+        Resources resources = Resources.sample();
+
+        String pressure = null;
+        if (p95 > targetMillis) {
+            pressure = "step p95 " + p95 + " ms > " + targetMillis + " ms";
+        } else if (resources.load() > maxLoad) {
+            pressure = String.format(Locale.ROOT, "load %.1f > %.1f", resources.load(), maxLoad);
+        } else if (resources.availableBytes() >= 0 && resources.availableBytes() < minFreeBytes) {
+            pressure = "available memory " + megabytes(resources.availableBytes()) + " MB < "
+                    + megabytes(minFreeBytes) + " MB";
+        }
+
+        int before = limit;
+        int current = active.get();
+        int waiting = permits.getQueueLength();
+        String action;
+        String reason;
+        if (pressure != null && before > min && current <= before) {
+            limit = Math.max(min, before / 2);
+            action = "decrease";
+            reason = pressure;
+        } else if (pressure != null) {
+            action = "hold";
+            reason = pressure + (before <= min ? ", already at the minimum" : ", last decrease not in effect yet");
+        } else if (waiting > 0 && before < max) {
+            limit = before + 1;
+            action = "increase";
+            reason = waiting + " waiting, step p95 " + (p95 < 0 ? "-" : p95 + " ms");
+        } else {
+            action = "hold";
+            reason = waiting > 0 ? "at the maximum" : "no tests waiting";
+        }
+        if (limit > before) {
+            permits.release(limit - before);
+        } else if (limit < before) {
+            // Sessions already running finish normally; the permits they return are absorbed
+            permits.reduce(before - limit);
+        }
+
+        Decision decision = new Decision((System.nanoTime() - startNanos) / 1_000_000, before, limit, current, waiting,
+                p95, resources.load(), megabytes(resources.availableBytes()), megabytes(resources.browserRssBytes()),
+                action, reason);
+        synchronized (decisions) {
+            decisions.add(decision);
+        }
+        if (limit != before) {
+            System.out.println("[concurrency] " + decision);
+        }
+        return decision;
+    }
+
+    private static long megabytes(long bytes) {
+        return bytes < 0 ? -1 : bytes / (1024 * 1024);
+    }
+
+    public String summary() {
+        List<Decision> timeline = timeline();
+        long elapsed = (System.nanoTime() - startNanos) / 1_000_000;
+        long increases = timeline.stream().filter(d -> "increase".equals(d.action())).count();
+        long decreases = timeline.stream().filter(d -> "decrease".equals(d.action())).count();
+        Histogram waitCopy = waits.copy();
+        return String.format(Locale.ROOT,
+                "limit %d-%d, average %.1f over %.0f s (now %d); %d increases, %d decreases;"
+                        + " %d of %d sessions waited, wait p50 %.1f s, p95 %.1f s, max %.1f s",
+                min, max, averageLimit(timeline, elapsed), elapsed / 1000.0, limit, increases, decreases,
+                waited.sum(), sessions.sum(), waitCopy.getValueAtPercentile(50) / 1e6,
+                waitCopy.getValueAtPercentile(95) / 1e6, waitCopy.getMaxValue() / 1e6);
+    }
+
+    // Time-weighted: each limit counts for as long as it was in force
+    private double averageLimit(List<Decision> timeline, long elapsedMillis) {
+        if (elapsedMillis <= 0) {
+            return limit;
+        }
+        double weighted = 0;
+        long since = 0;
+        int current = timeline.isEmpty() ? limit : timeline.get(0).before();
+        for (Decision decision : timeline) {
+            weighted += (double) current * (decision.atMillis() - since);
+            since = decision.atMillis();
+            current = decision.after();
+        }
+        weighted += (double) current * (elapsedMillis - since);
+        return weighted / elapsedMillis;
+    }
+
+    /**
+     * The limit over time, one line per change.
+     */
+    public String changes() {
+        StringBuilder table = new StringBuilder();
+        for (Decision decision : timeline()) {
+            if (decision.after() != decision.before()) {
+                table.append("  ").append(decision).append(System.lineSeparator());
+            }
+        }
+        return table.toString();
+    }
+
+    private List<Decision> timeline() {
+        synchronized (decisions) {
+            return new ArrayList<>(decisions);
+        }
+    }
+
+    public void writeJson(Path path) throws IOException {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("min", min);
+        json.put("max", max);
+        json.put("stepTargetMs", targetMillis);
+        json.put("maxLoad", maxLoad);
+        json.put("minFreeMb", megabytes(minFreeBytes));
+        json.put("summary", summary());
+        json.put("decisions", timeline());
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(json, writer);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            if (sampler != null) {
+                sampler.shutdownNow();
+            }
+        }
+        System.out.println("[concurrency] " + summary());
+        System.out.print(changes());
+        try {
+            writeJson(report);
+            System.out.println("[concurrency] timeline written to " + report.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Could not write " + report + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * One control step: the limit before and after, what was seen and why.
+     */
+    record Decision(long atMillis, int before, int after, int active, int waiting, long stepP95Millis,
+                    double load, long availableMb, long browserRssMb, String action, String reason) {
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%6.0fs limit %d -> %d (%s: %s; active %d, waiting %d, load %.1f,"
+                            + " available %s MB, browsers %s MB)",
+                    atMillis / 1000.0, before, after, action, reason, active, waiting, load,
+                    availableMb < 0 ? "?" : String.valueOf(availableMb),
+                    browserRssMb < 0 ? "?" : String.valueOf(browserRssMb));
+        }
+    }
+
+    /**
+     * The machine at one point in time. Memory figures are -1 where the OS doesn't expose them
+     * (process memory is read from /proc, so Linux only).
+     */
+    record Resources(double load, long availableBytes, long browserRssBytes) {
+
+        static Resources sample() {
+            OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+            return new Resources(Math.max(0, os.getSystemLoadAverage()), availableMemory(os), browserRss());
+        }
+
+        // MemAvailable counts reclaimable cache, which free memory alone doesn't
+        private static long availableMemory(OperatingSystemMXBean os) {
+            long fromProc = procKilobytes(Paths.get("/proc/meminfo"), "MemAvailable:");
+            if (fromProc >= 0) {
+                return fromProc * 1024;
+            }
+            if (os instanceof com.sun.management.OperatingSystemMXBean) {
+                return ((com.sun.management.OperatingSystemMXBean) os).getFreeMemorySize();
+            }
+            return -1;
+        }
+
+        // Resident memory of everything this JVM started: Playwright drivers and their browsers
+        private static long browserRss() {
+            if (!Files.isDirectory(Paths.get("/proc"))) {
+                return -1;
+            }
+            long[] total = {0};
+            ProcessHandle.current().descendants().forEach(process -> {
+                long kilobytes = procKilobytes(Paths.get("/proc", String.valueOf(process.pid()), "status"), "VmRSS:");
+                total[0] += Math.max(0, kilobytes) * 1024;
+            });
+            return total[0];
+        }
+
+        private static long procKilobytes(Path file, String key) {
+            try {
+                for (String line : Files.readAllLines(file)) {
+                    if (line.startsWith(key)) {
+                        return Long.parseLong(line.substring(key.length()).replace("kB", "").trim());
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // Gone (a process that just exited) or not Linux
+            }
+            return -1;
+        }
+    }
+
+    // A fair semaphore whose permits can also be taken away
+    private static final class LimitSemaphore extends Semaphore {
+
+        private LimitSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        private void reduce(int reduction) {
+            reducePermits(reduction);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.phorestdemo.browser;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Route;
+import com.phorestdemo.config.ConfigReader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps each worker's browser context between tests instead of closing it and creating a new one.
+ *
+ * When a test finishes, its context is reset: routes, cookies and permissions are cleared, the
+ * local storage and IndexedDB of every origin that has any are wiped, and all its pages are closed
+ * (which also drops session storage). The next test on the same worker gets it back with a new page.
+ * A context is closed instead of reset when it has served contextMaxUses tests, when its test
+ * failed (so no one inherits a page that may be in a broken state), or when the reset doesn't leave
+ * it empty: no pages, no cookies and no stored origins.
+ *
+ * Init scripts can't be removed from a context, so anything installed once per context (such as
+ * PagePerformance's observers) should only be installed on a fresh one, see {@link Lease#isFresh()}.
+ *
+ * Creation and reset times are reported per browser type at the end of the run.
+ */
+public class ContextPool implements AutoCloseable {
+
+    private static final String RESET_PATH = "/__context-reset__";
+
+    // Runs on an empty document served for each origin that still has storage
+    private static final String CLEAR_STORAGE = "async () => {\n"
+            + "  localStorage.clear();\n"
+            + "  sessionStorage.clear();\n"
+            + "  if (window.indexedDB && indexedDB.databases) {\n"
+            + "    for (const db of await indexedDB.databases()) indexedDB.deleteDatabase(db.name);\n"
+            + "  }\n"
+            + "}";
+
+    private final boolean enabled;
+    private final int maxUses;
+
+    // One idle context per worker; a worker only runs one test at a time
+    private final Map<BrowserWorker, Lease> idle = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    public ContextPool(boolean enabled, int maxUses) {
+        this.enabled = enabled;
+        this.maxUses = maxUses;
+    }
+
+    public static ContextPool fromConfig() {
+        boolean enabled = ConfigReader.isContextReuseEnabled();
+        if (enabled && ConfigReader.isWarmStartEnabled()) {
+            // A reset would wipe the snapshot's storage state that warm-started contexts begin with
+            System.err.println("contextReuse is ignored with warmStart=true");
+            enabled = false;
+        }
+        return new ContextPool(enabled, ConfigReader.getContextMaxUses());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The worker's reset context from its last test, or a new one.
+     */
+    public Lease acquire(BrowserWorker worker) {
+        Stats browserStats = stats(worker);
+        Lease lease = idle.remove(worker);
+        if (lease != null && lease.context.browser().isConnected()) {
+            lease.uses++;
+            browserStats.reused.increment();
+            return lease;
+        }
+        long start = System.nanoTime();
+        BrowserContext context = worker.getBrowser().newContext();
+        browserStats.createNanos.add(System.nanoTime() - start);
+        browserStats.created.increment();
+        return new Lease(context);
+    }
+
+    /**
+     * Resets the context for the worker's next test, or closes it. Never throws.
+     */
+    public void release(BrowserWorker worker, Lease lease, boolean testFailed) {
+        Stats browserStats = stats(worker);
+        String evictedFor = null;
+        if (testFailed) {
+            evictedFor = "failed test";
+        } else if (lease.uses >= maxUses) {
+            evictedFor = "max uses";
+        } else {
+            long start = System.nanoTime();
+            boolean clean = reset(lease.context);
+            browserStats.resetNanos.add(System.nanoTime() - start);
+            browserStats.resets.increment();
+            if (clean) {
+                idle.put(worker, lease);
+            } else {
+                evictedFor = "failed reset";
+            }
+        }
+        if (evictedFor != null) {
+            browserStats.evicted.computeIfAbsent(evictedFor, reason -> new LongAdder()).increment();
+            long start = System.nanoTime();
+            closeQuietly(lease.context);
+            browserStats.closeNanos.add(System.nanoTime() - start);
+            browserStats.closed.increment();
+        }
+    }
+
+    // True if the context came out with no routes, cookies, stored origins or pages
+    private static boolean reset(BrowserContext context) {
+        try {
+            context.unrouteAll();
+            context.clearCookies();
+            context.clearPermissions();
+            Set<String> origins = storedOrigins(context.storageState());
+            if (!origins.isEmpty()) {
+                clearStorage(context, origins);
+            }
+            for (Page page : new ArrayList<>(context.pages())) {
+                page.close();
+            }
+            String state = context.storageState();
+            return context.pages().isEmpty() && storedOrigins(state).isEmpty() && cookieCount(state) == 0;
+        } catch (RuntimeException e) {
+            System.err.println("Could not reset browser context: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Visits an empty page on each origin (answered by a route, never the network) to clear its storage
+    private static void clearStorage(BrowserContext context, Set<String> origins) {
+        context.route("**" + RESET_PATH, route -> route.fulfill(new Route.FulfillOptions()
+                .setContentType("text/html").setBody("<!doctype html><title>reset</title>")));
+        try {
+            Page page = context.pages().isEmpty() ? context.newPage() : context.pages().get(0);
+            for (String origin : origins) {
+                page.navigate(origin + RESET_PATH);
+                page.evaluate(CLEAR_STORAGE);
+            }
+        } finally {
+            context.unrouteAll();
+        }
+    }
+
+    private static Set<String> storedOrigins(String storageState) {
+        Set<String> origins = new LinkedHashSet<>();
+        JsonElement list = JsonParser.parseString(storageState).getAsJsonObject().get("origins");
+        if (list != null && list.isJsonArray()) {
+            for (JsonElement origin : list.getAsJsonArray()) {
+                origins.add(origin.getAsJsonObject().get("origin").getAsString());
+            }
+        }
+        return origins;
+    }
+
+    private static int cookieCount(String storageState) {
+        JsonObject state = JsonParser.parseString(storageState).getAsJsonObject();
+        JsonArray cookies = state.has("cookies") ? state.getAsJsonArray("cookies") : new JsonArray();
+        return cookies.size();
+    }
+
+    private static void closeQuietly(BrowserContext context) {
+        try {
+            context.close();
+        } catch (RuntimeException e) {
+            System.err.println("Could not close browser context: " + e.getMessage());
+        }
+    }
+
+    private Stats stats(BrowserWorker worker) {
+        return stats.computeIfAbsent(worker.getBrowser().browserType().name(), name -> new Stats());
+    }
+
+    public String summary() {
+        StringBuilder summary = new StringBuilder();
+        new TreeMap<>(stats).forEach((browser, browserStats) -> {
+            if (summary.length() > 0) {
+                summary.append(System.lineSeparator());
+            }
+            summary.append(browser).append(": ").append(browserStats.summary());
+        });
+        return summary.toString();
+    }
+
+    /**
+     * Closes the idle contexts and prints the summary. Runs before the browser pool closes.
+     */
+    @Override
+    public void close() {
+        List<Lease> remaining;
+        synchronized (idle) {
+            remaining = new ArrayList<>(idle.values());
+            idle.clear();
+        }
+        remaining.forEach(lease -> closeQuietly(lease.context));
+        if (!stats.isEmpty()) {
+            summary().lines().forEach(line -> System.out.println("[contexts] " + line));
+        }
+    }
+
+    /**
+     * A context on loan to one test.
+     */
+    public static final class Lease {
+        private final BrowserContext context;
+        private int uses = 1;
+
+        private Lease(BrowserContext context) {
+            this.context = context;
+        }
+
+        public BrowserContext getContext() {
+            return context;
+        }
+
+        /**
+         * Whether this is the context's first test, i.e. nothing has been installed on it yet.
+         */
+        public boolean isFresh() {
+            return uses == 1;
+        }
+    }
+
+    private static final class Stats {
+        private final LongAdder created = new LongAdder();
+        private final LongAdder reused = new LongAdder();
+        private final LongAdder resets = new LongAdder();
+        private final LongAdder closed = new LongAdder();
+        private final LongAdder createNanos = new LongAdder();
+        private final LongAdder resetNanos = new LongAdder();
+        private final LongAdder closeNanos = new LongAdder();
+        private final Map<String, LongAdder> evicted = new ConcurrentHashMap<>();
+
+        // A fresh context costs its creation plus, eventually, its close; a reused one costs a reset
+        private String summary() {
+            long sessions = created.sum() + reused.sum();
+            double create = average(createNanos, created.sum());
+            double close = average(closeNanos, closed.sum());
+            double reset = average(resetNanos, resets.sum());
+            StringBuilder evictions = new StringBuilder();
+            new TreeMap<>(evicted).forEach((reason, count) -> evictions
+                    .append(evictions.length() == 0 ? "" : ", ").append(count.sum()).append(' ').append(reason));
+            return String.format(Locale.ROOT,
+                    "%d tests, %d reused contexts (%.1f%%), %d created;"
+                            + " new context avg %.1f ms + close avg %.1f ms vs reset avg %.1f ms%s; evicted %d%s",
+                    sessions, reused.sum(), sessions == 0 ? 0 : 100.0 * reused.sum() / sessions, created.sum(),
+                    create, close, reset,
+                    reset > 0 ? String.format(Locale.ROOT, " (%.1fx)", (create + close) / reset) : "",
+                    closed.sum(), evictions.length() == 0 ? "" : " (" + evictions + ")");
+        }
+
+        private static double average(LongAdder nanos, long count) {
+            return count == 0 ? 0 : nanos.sum() / 1e6 / count;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.phorestdemo.browser;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Tracing;
+import com.phorestdemo.config.ConfigReader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Playwright traces (screenshots and DOM snapshots) for every context, kept only for failed tests.
+ *
+ * Traces are recorded into the browser's tracesDir. A passing test's trace is discarded
+ * when it stops, without being zipped. A failing test's trace is saved as a zip in traceDir.
+ * traceDir is a ring buffer: the oldest zips are deleted once there are more than
+ * traceMaxCount, or they add up to more than traceMaxMegabytes.
+ *
+ * The time spent starting, discarding and saving traces is reported at the end of the run.
+ */
+public class FailureTraces implements AutoCloseable {
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final boolean enabled;
+    private final Path dir;
+    private final int maxCount;
+    private final long maxBytes;
+
+    private final Map<BrowserContext, Long> tracedSince = new ConcurrentHashMap<>();
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final LongAdder traced = new LongAdder();
+    private final LongAdder kept = new LongAdder();
+    private final LongAdder keptBytes = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder startNanos = new LongAdder();
+    private final LongAdder discardNanos = new LongAdder();
+    private final LongAdder saveNanos = new LongAdder();
+    private final LongAdder tracedNanos = new LongAdder();
+
+    public FailureTraces(boolean enabled, Path dir, int maxCount, long maxBytes) {
+        this.enabled = enabled;
+        this.dir = dir;
+        this.maxCount = maxCount;
+        this.maxBytes = maxBytes;
+    }
+
+    public static FailureTraces fromConfig() {
+        return new FailureTraces(
+                ConfigReader.isTraceOnFailureEnabled(),
+                Paths.get(ConfigReader.getTraceDir()),
+                ConfigReader.getTraceMaxCount(),
+                ConfigReader.getTraceMaxMegabytes() * 1024 * 1024);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Where browsers record traces in progress, set as the tracesDir launch option.
+     */
+    public static Path recordingDir(int workerId) {
+        return Paths.get(ConfigReader.getTraceDir(), "recording", "worker-" + workerId);
+    }
+
+    public void start(BrowserContext context, String testName) {
+        long start = System.nanoTime();
+        context.tracing().start(new Tracing.StartOptions()
+                .setTitle(testName)
+                .setScreenshots(true)
+                .setSnapshots(true));
+        long now = System.nanoTime();
+        startNanos.add(now - start);
+        traced.increment();
+        tracedSince.put(context, now);
+    }
+
+    /**
+     * Stops tracing before the context closes. Saves the trace if the test failed, otherwise drops it.
+     * Never throws, so a tracing problem can't hide the test's own result.
+     */
+    public void finish(BrowserContext context, String testName, boolean testFailed) {
+        Long since = tracedSince.remove(context);
+        if (since == null) {
+            return;
+        }
+        long stop = System.nanoTime();
+        tracedNanos.add(stop - since);
+        try {
+            if (testFailed) {
+                Files.createDirectories(dir);
+                Path zip = dir.resolve(fileName(testName));
+                context.tracing().stop(new Tracing.StopOptions().setPath(zip));
+                saveNanos.add(System.nanoTime() - stop);
+                kept.increment();
+                keptBytes.add(Files.size(zip));
+                System.out.println("[traces] " + testName + " failed, trace: " + zip.toAbsolutePath());
+                evict();
+            } else {
+                context.tracing().stop();
+                discardNanos.add(System.nanoTime() - stop);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not stop tracing for " + testName + ": " + e.getMessage());
+        }
+    }
+
+    private String fileName(String testName) {
+        String safeName = testName.replaceAll("[^A-Za-z0-9._-]+", "_");
+        if (safeName.length() > 80) {
+            safeName = safeName.substring(0, 80);
+        }
+        return String.format("%s-%03d-%s.zip",
+                LocalDateTime.now().format(FILE_TIME), sequence.incrementAndGet() % 1000, safeName);
+    }
+
+    // Oldest first by file name (which starts with the time), always keeping the newest trace
+    private synchronized void evict() throws IOException {
+        List<Path> zips;
+        try (Stream<Path> files = Files.list(dir)) {
+            zips = files.filter(p -> p.getFileName().toString().endsWith(".zip"))
+                    .sorted(Comparator.comparing(p -> p.getFileName().toString()))
+                    .collect(Collectors.toList());
+        }
+        long total = 0;
+        for (Path zip : zips) {
+            total += Files.size(zip);
+        }
+        int remaining = zips.size();
+        for (Path oldest : zips) {
+            if (remaining <= 1 || (remaining <= maxCount && total <= maxBytes)) {
+                break;
+            }
+            long size = Files.size(oldest);
+            Files.deleteIfExists(oldest);
+            total -= size;
+            remaining--;
+            evicted.increment();
+        }
+    }
+
+    public String summary() {
+        long contexts = traced.sum();
+        long keptCount = kept.sum();
+        long passed = contexts - keptCount;
+        double overheadMs = (startNanos.sum() + discardNanos.sum() + saveNanos.sum()) / 1e6;
+        double tracedMs = tracedNanos.sum() / 1e6;
+        return String.format(Locale.ROOT,
+                "%d contexts traced, %d kept (%.1f MB), %d evicted from %s;"
+                        + " tracing calls took %.1f s of %.1f s traced (%.1f%%):"
+                        + " start avg %.1f ms, discard avg %.1f ms, save avg %.1f ms",
+                contexts, keptCount, keptBytes.sum() / (1024.0 * 1024.0), evicted.sum(), dir,
+                overheadMs / 1000, tracedMs / 1000, tracedMs > 0 ? 100 * overheadMs / tracedMs : 0,
+                average(startNanos, contexts), average(discardNanos, passed), average(saveNanos, keptCount));
+    }
+
+    private static double average(LongAdder nanos, long count) {
+        return count == 0 ? 0 : nanos.sum() / 1e6 / count;
+    }
+
+    @Override
+    public void close() {
+        if (traced.sum() > 0) {
+            System.out.println("[traces] " + summary());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.phorestdemo.browser;
+
+import com.microsoft.playwright.Request;
+
+import java.net.URI;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Request counters for one test (or the whole suite once merged), broken down by host
+ * so the most expensive third parties stand out.
+ */
+public class NetworkStats {
+
+    private final Map<String, HostStats> hosts = new ConcurrentHashMap<>();
+
+    // RequestRouter's listener feeding these counters, so it can be removed from a reused context
+    Consumer<Request> listener;
+
+    void recordBlocked(String url) {
+        host(url).blocked.increment();
+    }
+
+    void recordPassed(String url, long bytes, double millis) {
+        HostStats stats = host(url);
+        stats.passed.increment();
+        stats.bytes.add(Math.max(0, bytes));
+        stats.micros.add((long) (Math.max(0, millis) * 1000));
+    }
+
+    public long getBlockedRequests() {
+        return hosts.values().stream().mapToLong(h -> h.blocked.sum()).sum();
+    }
+
+    public long getPassedRequests() {
+        return hosts.values().stream().mapToLong(h -> h.passed.sum()).sum();
+    }
+
+    public long getPassedBytes() {
+        return hosts.values().stream().mapToLong(h -> h.bytes.sum()).sum();
+    }
+
+    public void mergeInto(NetworkStats total) {
+        hosts.forEach((host, stats) -> {
+            HostStats target = total.hosts.computeIfAbsent(host, h -> new HostStats());
+            target.blocked.add(stats.blocked.sum());
+            target.passed.add(stats.passed.sum());
+            target.bytes.add(stats.bytes.sum());
+            target.micros.add(stats.micros.sum());
+        });
+    }
+
+    public String summary() {
+        return String.format("passed %d requests (%d KB), blocked %d",
+                getPassedRequests(), getPassedBytes() / 1024, getBlockedRequests());
+    }
+
+    /**
+     * One line per host, slowest first, for the end-of-run report.
+     */
+    public String hostTable(int limit) {
+        StringBuilder table = new StringBuilder(String.format("%-40s %8s %10s %10s %8s%n",
+                "host", "passed", "KB", "time ms", "blocked"));
+        hosts.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, HostStats> e) -> e.getValue().micros.sum())
+                        .thenComparingLong(e -> e.getValue().blocked.sum())
+                        .reversed())
+                .limit(limit)
+                .forEach(e -> table.append(String.format("%-40s %8d %10d %10d %8d%n",
+                        e.getKey(),
+                        e.getValue().passed.sum(),
+                        e.getValue().bytes.sum() / 1024,
+                        e.getValue().micros.sum() / 1000,
+                        e.getValue().blocked.sum())));
+        return table.toString();
+    }
+
+    private HostStats host(String url) {
+        return hosts.computeIfAbsent(hostOf(url), h -> new HostStats());
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host : url.split(":", 2)[0];
+        } catch (IllegalArgumentException e) {
+            return "(unparseable)";
+        }
+    }
+
+    private static final class HostStats {
+        private final LongAdder blocked = new LongAdder();
+        private final LongAdder passed = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder micros = new LongAdder();
+    }
+}
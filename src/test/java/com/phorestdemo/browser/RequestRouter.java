@@ -0,0 +1,147 @@
+package com.phorestdemo.browser;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Request;
+import com.microsoft.playwright.options.Sizes;
+import com.phorestdemo.config.ConfigReader;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Blocks requests the assertions never need (analytics, fonts, images...) and counts
+ * what gets through. Rules come from config.properties:
+ *
+ * blockResourceTypes - Playwright resource types, e.g. image,font,media
+ * blockUrls          - URL globs, e.g. *google-analytics.com*
+ * allowUrls          - URL globs that are never blocked, e.g. *stripe*
+ *
+ * Allowed requests fall through to any earlier route (such as the warm-start HAR).
+ */
+public class RequestRouter implements AutoCloseable {
+
+    private final Set<String> blockedTypes;
+    private final List<Pattern> blockedUrls;
+    private final List<Pattern> allowedUrls;
+    private final boolean countRequests;
+    private final NetworkStats suiteTotals = new NetworkStats();
+
+    public RequestRouter(List<String> blockedTypes, List<String> blockedUrls, List<String> allowedUrls,
+                         boolean countRequests) {
+        this.blockedTypes = blockedTypes.stream()
+                .map(type -> type.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.blockedUrls = blockedUrls.stream().map(RequestRouter::glob).collect(Collectors.toUnmodifiableList());
+        this.allowedUrls = allowedUrls.stream().map(RequestRouter::glob).collect(Collectors.toUnmodifiableList());
+        this.countRequests = countRequests;
+    }
+
+    public static RequestRouter fromConfig() {
+        return new RequestRouter(
+                ConfigReader.getBlockedResourceTypes(),
+                ConfigReader.getBlockedUrls(),
+                ConfigReader.getAllowedUrls(),
+                ConfigReader.isNetworkStatsEnabled());
+    }
+
+    public boolean isEnabled() {
+        return isBlocking() || countRequests;
+    }
+
+    private boolean isBlocking() {
+        return !blockedTypes.isEmpty() || !blockedUrls.isEmpty();
+    }
+
+    boolean shouldBlock(String url, String resourceType) {
+        if (url.startsWith("data:") || matchesAny(allowedUrls, url)) {
+            return false;
+        }
+        return blockedTypes.contains(resourceType) || matchesAny(blockedUrls, url);
+    }
+
+    /**
+     * Installs the rules on a new context and returns the counters for the test using it.
+     * Register after routeFromHAR so blocking is decided first.
+     */
+    public NetworkStats attach(BrowserContext context) {
+        NetworkStats stats = new NetworkStats();
+
+        if (isBlocking()) {
+            context.route("**/*", route -> {
+                Request request = route.request();
+                if (shouldBlock(request.url(), request.resourceType())) {
+                    stats.recordBlocked(request.url());
+                    route.abort("blockedbyclient");
+                } else {
+                    route.fallback();
+                }
+            });
+        }
+
+        if (countRequests) {
+            stats.listener = request -> {
+                if (request.url().startsWith("data:")) {
+                    return;
+                }
+                Sizes sizes = request.sizes();
+                stats.recordPassed(request.url(),
+                        (long) sizes.responseBodySize + sizes.responseHeadersSize,
+                        request.timing().responseEnd);
+            };
+            context.onRequestFinished(stats.listener);
+        }
+        return stats;
+    }
+
+    /**
+     * Stops counting into the test's stats, for a context that goes on to another test.
+     * Its routes are left to the caller (ContextPool clears them all).
+     */
+    public void detach(BrowserContext context, NetworkStats stats) {
+        if (stats != null && stats.listener != null) {
+            context.offRequestFinished(stats.listener);
+            stats.listener = null;
+        }
+    }
+
+    public void finish(String testName, NetworkStats stats) {
+        if (stats == null) {
+            return;
+        }
+        System.out.println("[network] " + testName + ": " + stats.summary());
+        stats.mergeInto(suiteTotals);
+    }
+
+    private static boolean matchesAny(List<Pattern> patterns, String url) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(url).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // '*' (or '**') matches any run of characters, everything else is literal
+    static Pattern glob(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (String part : glob.trim().split("\\*+", -1)) {
+            if (regex.length() > 0) {
+                regex.append(".*");
+            }
+            regex.append(Pattern.quote(part));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    @Override
+    public void close() {
+        if (!isEnabled()) {
+            return;
+        }
+        System.out.println("[network] suite total: " + suiteTotals.summary());
+        System.out.print(suiteTotals.hostTable(15));
+    }
+}
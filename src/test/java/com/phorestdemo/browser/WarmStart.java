@@ -0,0 +1,170 @@
+package com.phorestdemo.browser;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.options.HarContentPolicy;
+import com.microsoft.playwright.options.HarMode;
+import com.microsoft.playwright.options.HarNotFound;
+import com.phorestdemo.config.ConfigReader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Per-worker storefront snapshot: the first context a worker creates records its
+ * storageState and a HAR of the static assets; later contexts start from that
+ * storageState and have the assets answered from the HAR via routeFromHAR.
+ *
+ * Snapshots live under target/warm-start/&lt;key&gt;, where the key is a hash of the
+ * base URL and browser type, so changing either starts from cold again. Snapshots of
+ * other keys are deleted once per run, before any worker records, keeping those of
+ * every browser the run can use (browserMatrix and browserType).
+ */
+public class WarmStart {
+
+    private static final Path ROOT = Paths.get("target", "warm-start");
+
+    private static boolean purged;
+
+    private final String key;
+    private final Path directory;
+    private final Path storageState;
+    private final Path har;
+    private final Pattern assetPattern;
+
+    private boolean recording;
+
+    WarmStart(String baseUrl, String browserType, int workerId, Pattern assetPattern) {
+        this.key = key(baseUrl, browserType);
+        this.directory = ROOT.resolve(key).resolve("worker-" + workerId);
+        this.storageState = directory.resolve("storage-state.json");
+        this.har = directory.resolve("assets.har.zip");
+        this.assetPattern = assetPattern;
+        purgeOtherKeys(baseUrl);
+    }
+
+    static String key(String baseUrl, String browserType) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((browserType.toLowerCase() + '\n' + baseUrl).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    public boolean isWarm() {
+        return Files.isRegularFile(storageState) && Files.isRegularFile(har);
+    }
+
+    /**
+     * Options for the next context: start from the snapshot when there is one,
+     * otherwise record a new one.
+     */
+    public Browser.NewContextOptions newContextOptions() {
+        Browser.NewContextOptions options = new Browser.NewContextOptions();
+        if (isWarm()) {
+            recording = false;
+            return options.setStorageStatePath(storageState);
+        }
+
+        recording = true;
+        createDirectory();
+        return options
+                .setRecordHarPath(har)
+                .setRecordHarContent(HarContentPolicy.ATTACH)
+                .setRecordHarMode(HarMode.MINIMAL)
+                .setRecordHarUrlFilter(assetPattern);
+    }
+
+    public void onContextCreated(BrowserContext context) {
+        if (!recording) {
+            // Unknown assets still go to the network
+            context.routeFromHAR(har, new BrowserContext.RouteFromHAROptions()
+                    .setUrl(assetPattern)
+                    .setNotFound(HarNotFound.FALLBACK));
+        }
+    }
+
+    /**
+     * Must run before the context is closed; the HAR itself is written by close().
+     */
+    public void beforeContextClose(BrowserContext context, boolean testFailed) {
+        if (!recording) {
+            return;
+        }
+        if (testFailed) {
+            // Don't warm-start everyone else from a page that may be in a broken state
+            recording = false;
+            return;
+        }
+        context.storageState(new BrowserContext.StorageStateOptions().setPath(storageState));
+    }
+
+    public void afterContextClose() {
+        if (recording && !Files.isRegularFile(storageState)) {
+            deleteQuietly(har);
+        }
+        recording = false;
+    }
+
+    private void createDirectory() {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create " + directory, e);
+        }
+    }
+
+    // Only once: later it would delete snapshots that other browsers' workers are using
+    private static synchronized void purgeOtherKeys(String baseUrl) {
+        if (purged) {
+            return;
+        }
+        purged = true;
+        if (!Files.isDirectory(ROOT)) {
+            return;
+        }
+        Set<String> browsers = new LinkedHashSet<>(ConfigReader.getBrowserMatrix());
+        browsers.add(ConfigReader.getBrowserType());
+        Set<String> keep = new LinkedHashSet<>();
+        browsers.forEach(browser -> keep.add(key(baseUrl, browser)));
+        try (Stream<Path> snapshots = Files.list(ROOT)) {
+            snapshots.filter(path -> !keep.contains(path.getFileName().toString()))
+                    .forEach(WarmStart::deleteRecursively);
+        } catch (IOException e) {
+            System.err.println("Could not clean old warm-start snapshots: " + e.getMessage());
+        }
+    }
+
+    private static void deleteRecursively(Path path) {
+        try (Stream<Path> files = Files.walk(path)) {
+            files.sorted(Comparator.reverseOrder()).forEach(WarmStart::deleteQuietly);
+        } catch (IOException e) {
+            System.err.println("Could not delete " + path + ": " + e.getMessage());
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.phorestdemo.browser;
+
+import com.phorestdemo.config.ConfigReader;
+import org.junit.platform.engine.ConfigurationParameters;
+import org.junit.platform.engine.support.hierarchical.ParallelExecutionConfiguration;
+import org.junit.platform.engine.support.hierarchical.ParallelExecutionConfigurationStrategy;
+
+/**
+ * Sizes the JUnit fork-join pool from the same setting as {@link BrowserPool},
+ * so there is one worker thread per leasable browser and none sit blocked.
+ *
+ * Enabled from the surefire configuration in pom.xml via
+ * junit.jupiter.execution.parallel.config.custom.class.
+ */
+public class WorkerPoolParallelism implements ParallelExecutionConfigurationStrategy {
+
+    @Override
+    public ParallelExecutionConfiguration createConfiguration(ConfigurationParameters configurationParameters) {
+        int parallelism = ConfigReader.getWorkerPoolSize();
+
+        return new ParallelExecutionConfiguration() {
+            @Override
+            public int getParallelism() {
+                return parallelism;
+            }
+
+            @Override
+            public int getMinimumRunnable() {
+                return parallelism;
+            }
+
+            @Override
+            public int getMaxPoolSize() {
+                // Room for JUnit's compensating threads while others wait on locks
+                return parallelism + 256;
+            }
+
+            @Override
+            public int getCorePoolSize() {
+                return parallelism;
+            }
+
+            @Override
+            public int getKeepAliveSeconds() {
+                return 30;
+            }
+        };
+    }
+}
@@ -2,7 +2,13 @@ package com.phorestdemo.config;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.stream.Collectors;
 
 public class ConfigReader {
 
@@ -22,6 +28,19 @@ public class ConfigReader {
         }
     }
 
+    // -Dkey=value on the command line wins over config.properties
+    private static String get(String key, String defaultValue) {
+        return System.getProperty(key, properties.getProperty(key, defaultValue));
+    }
+
+    // Comma separated value, blanks dropped
+    private static List<String> getList(String key) {
+        return Arrays.stream(get(key, "").split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .collect(Collectors.toList());
+    }
+
     public static boolean isHeadless() {
         // Force headless in CI (GitHub Actions sets CI=true)
         if (System.getenv("CI") != null) {
@@ -29,18 +48,383 @@ public class ConfigReader {
         }
         return Boolean.parseBoolean(
                 // Set this to true for headful mode
-                properties.getProperty("driverHeadless", "true"));
+                get("driverHeadless", "true"));
     }
 
     public static String getBaseUrl() {
-        return properties.getProperty("baseUrl", "https://gift-cards.phorest.com/salons/demo#");
+        return get("baseUrl", "https://gift-cards.phorest.com/salons/demo#");
     }
 
     public static String getBrowserType() {
-        return properties.getProperty("browserType", "chromium");
+        return get("browserType", "chromium");
+    }
+
+    /**
+     * Browsers every @BrowserTest runs on in one run, e.g. chromium,firefox,webkit. Defaults to browserType.
+     */
+    public static List<String> getBrowserMatrix() {
+        List<String> browsers = getList("browserMatrix").stream()
+                .map(String::toLowerCase)
+                .distinct()
+                .collect(Collectors.toList());
+        return browsers.isEmpty() ? List.of(getBrowserType().toLowerCase()) : browsers;
+    }
+
+    /**
+     * Connect to the browsers of a running BrowserDaemon instead of launching them, when it matches this run.
+     */
+    public static boolean isBrowserDaemonEnabled() {
+        return Boolean.parseBoolean(get("browserDaemon", "false"));
+    }
+
+    // Outside target/ so mvn clean doesn't lose track of a running daemon
+    public static String getDaemonDir() {
+        return get("daemonDir", Paths.get(System.getProperty("java.io.tmpdir"), "phorestdemo-playwright-daemon").toString());
+    }
+
+    // Browsers the daemon launches; defaults to the browser matrix
+    public static List<String> getDaemonBrowsers() {
+        List<String> browsers = getList("daemonBrowsers");
+        return browsers.isEmpty() ? getBrowserMatrix() : browsers;
     }
 
     public static int getDefaultTimeout() {
-        return Integer.parseInt(properties.getProperty("defaultTimeout", "10000"));
+        return Integer.parseInt(get("defaultTimeout", "10000"));
+    }
+
+    /**
+     * Number of Playwright/Browser pairs the suite may hold at once.
+     * Also used as the JUnit parallelism so every worker thread can lease one.
+     */
+    public static int getWorkerPoolSize() {
+        String value = get("workerPoolSize", "");
+        if (value.isBlank()) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        return Math.max(1, Integer.parseInt(value.trim()));
+    }
+
+    /**
+     * storefront=stub runs the flows against the in-process StorefrontStub instead of baseUrl.
+     */
+    public static boolean useLocalStorefront() {
+        return "stub".equalsIgnoreCase(get("storefront", "live").trim());
+    }
+
+    // 0 picks a free port
+    public static int getStubPort() {
+        return Integer.parseInt(get("stubPort", "0"));
+    }
+
+    /**
+     * mailslurp (remote inboxes, needs MAILSLURP_API_KEY), mailslurp-stub (the MailSlurp client
+     * against an in-process stand-in) or local (in-process SMTP sink).
+     */
+    public static String getMailBackend() {
+        return get("mailBackend", "mailslurp");
+    }
+
+    // 0 picks a free port
+    public static int getSmtpPort() {
+        return Integer.parseInt(get("smtpPort", "0"));
+    }
+
+    public static String getMailSlurpBaseUrl() {
+        return get("mailslurpBaseUrl", "https://api.mailslurp.com");
+    }
+
+    /**
+     * Mailboxes to pre-create and recycle between tests; 0 creates and deletes one per use.
+     */
+    public static int getMailboxPoolSize() {
+        return Integer.parseInt(get("mailboxPool", "0"));
+    }
+
+    // Upper bound for waiting on a single voucher email
+    public static long getEmailTimeout() {
+        return Long.parseLong(get("emailTimeout", "180000"));
+    }
+
+    /**
+     * Reuse the first test's storageState and a HAR of static assets for later contexts in each worker.
+     */
+    public static boolean isWarmStartEnabled() {
+        return Boolean.parseBoolean(get("warmStart", "false"));
+    }
+
+    // Which URLs are recorded into / served from the warm-start HAR
+    public static String getWarmStartAssetPattern() {
+        return get("warmStartAssets", ".*\\.(js|css|png|jpe?g|gif|svg|webp|ico|woff2?|ttf)(\\?.*)?$");
+    }
+
+    /**
+     * Reset and reuse each worker's browser context between tests instead of creating a new one per test.
+     */
+    public static boolean isContextReuseEnabled() {
+        return Boolean.parseBoolean(get("contextReuse", "false"));
+    }
+
+    // Tests a context serves before it is closed and replaced
+    public static int getContextMaxUses() {
+        return Integer.parseInt(get("contextMaxUses", "20"));
+    }
+
+    public static boolean isAdaptiveConcurrencyEnabled() {
+        return Boolean.parseBoolean(get("adaptiveConcurrency", "false"));
+    }
+
+    public static int getConcurrencyMin() {
+        return Integer.parseInt(get("concurrencyMin", "1"));
+    }
+
+    // The most sessions the controller allows at once; defaults to the worker pool size
+    public static int getConcurrencyMax() {
+        String value = get("concurrencyMax", "");
+        if (value.isBlank()) {
+            return getWorkerPoolSize();
+        }
+        return Math.max(1, Integer.parseInt(value.trim()));
+    }
+
+    // Page-object step p95, in milliseconds, above which the controller backs off
+    public static long getConcurrencyStepTarget() {
+        return Long.parseLong(get("concurrencyStepTarget", "4000"));
+    }
+
+    public static double getConcurrencyMaxLoadPerCpu() {
+        return Double.parseDouble(get("concurrencyMaxLoadPerCpu", "1.5"));
+    }
+
+    // In megabytes
+    public static long getConcurrencyMinFreeMemory() {
+        return Long.parseLong(get("concurrencyMinFreeMemory", "1024"));
+    }
+
+    // Seconds between adjustments
+    public static long getConcurrencyInterval() {
+        return Long.parseLong(get("concurrencyInterval", "5"));
+    }
+
+    public static String getConcurrencyReport() {
+        return get("concurrencyReport", "target/concurrency-report.json");
+    }
+
+    // Playwright resource types to abort, e.g. image,font,media
+    public static List<String> getBlockedResourceTypes() {
+        return getList("blockResourceTypes");
+    }
+
+    // URL globs to abort, e.g. *google-analytics.com*
+    public static List<String> getBlockedUrls() {
+        return getList("blockUrls");
+    }
+
+    // URL globs that are never blocked, even if their type or URL is in a block list
+    public static List<String> getAllowedUrls() {
+        return getList("allowUrls");
+    }
+
+    // Count passed/blocked requests and bytes per test and per host
+    public static boolean isNetworkStatsEnabled() {
+        return Boolean.parseBoolean(get("networkStats", "false"));
+    }
+
+    /**
+     * Time every public page-object action into per-step latency histograms.
+     */
+    public static boolean isStepTimingEnabled() {
+        return Boolean.parseBoolean(get("stepTimings", "true"));
+    }
+
+    public static String getStepTimingsReport() {
+        return get("stepTimingsReport", "target/step-timings.json");
+    }
+
+    // How many generated scenarios GeneratedVoucherTests runs, across all shards
+    public static long getScenarioCount() {
+        return Long.parseLong(get("scenarioCount", "20"));
+    }
+
+    public static long getScenarioSeed() {
+        return Long.parseLong(get("scenarioSeed", "20240601"));
+    }
+
+    // Seed the voucher form in one step in generated scenarios and load runs (VoucherPage.seed)
+    public static boolean isFastForwardEnabled() {
+        return Boolean.parseBoolean(get("fastForward", "false"));
+    }
+
+    // Preset voucher values offered by the storefront, without currency or decimals
+    public static List<String> getScenarioPresetAmounts() {
+        List<String> amounts = getList("scenarioPresetAmounts");
+        return amounts.isEmpty() ? List.of("150") : amounts;
+    }
+
+    /**
+     * This node's shard (0-based) when the suite is split across CI nodes, usually -DshardIndex=N.
+     */
+    public static int getShardIndex() {
+        return Integer.parseInt(get("shardIndex", "0"));
+    }
+
+    public static int getShardTotal() {
+        return Integer.parseInt(get("shardTotal", "1"));
+    }
+
+    /**
+     * How @Test methods are split across shards: "hash" (consistent hashing on the test ID)
+     * or "timing" (balanced on testDurations from previous runs).
+     */
+    public static String getShardStrategy() {
+        return get("shardStrategy", "hash");
+    }
+
+    // Durations read for shard balancing; cache it between CI runs
+    public static String getTestDurations() {
+        return get("testDurations", "target/test-durations.properties");
+    }
+
+    // Where this run writes its durations; defaults to testDurations
+    public static String getTestDurationsOut() {
+        return get("testDurationsOut", getTestDurations());
+    }
+
+    /**
+     * Git ref to run only the tests impacted since, e.g. origin/main; empty runs every test.
+     */
+    public static String getImpactBase() {
+        return get("impactBase", "");
+    }
+
+    // Where the test -> reached page methods and selectors index is written
+    public static String getImpactIndex() {
+        return get("impactIndex", "target/impact-index.json");
+    }
+
+    // Print page-object selector lookups vs Locators actually created at the end of the run
+    public static boolean isLocatorStatsEnabled() {
+        return Boolean.parseBoolean(get("locatorStats", "false"));
+    }
+
+    /**
+     * Learn element wait timeouts from earlier runs; false waits the full waitCeiling every time.
+     */
+    public static boolean isAdaptiveWaitsEnabled() {
+        return Boolean.parseBoolean(get("adaptiveWaits", "false"));
+    }
+
+    public static String getWaitHistory() {
+        return get("waitHistory", "target/wait-history.json");
+    }
+
+    public static double getWaitPercentile() {
+        return Double.parseDouble(get("waitPercentile", "99"));
+    }
+
+    // Added on top of the scaled percentile so fast waits aren't cut too fine
+    public static long getWaitMargin() {
+        return Long.parseLong(get("waitMargin", "2000"));
+    }
+
+    // Longest any element wait may take, and the timeout until a wait has history
+    public static long getWaitCeiling() {
+        return Long.parseLong(get("waitCeiling", "30000"));
+    }
+
+    public static int getWaitMinSamples() {
+        return Integer.parseInt(get("waitMinSamples", "5"));
+    }
+
+    /**
+     * Trace every browser context, keeping the trace only when its test fails.
+     */
+    public static boolean isTraceOnFailureEnabled() {
+        return Boolean.parseBoolean(get("traceOnFailure", "false"));
+    }
+
+    public static String getTraceDir() {
+        return get("traceDir", "target/traces");
+    }
+
+    // Failure traces kept in traceDir before the oldest are deleted
+    public static int getTraceMaxCount() {
+        return Integer.parseInt(get("traceMaxCount", "20"));
+    }
+
+    public static long getTraceMaxMegabytes() {
+        return Long.parseLong(get("traceMaxMegabytes", "200"));
+    }
+
+    // Virtual users (each with its own browser) in a LoadRunner run
+    public static int getLoadUsers() {
+        return Integer.parseInt(get("loadUsers", "4"));
+    }
+
+    public static long getLoadRampUpSeconds() {
+        return Long.parseLong(get("loadRampUp", "10"));
+    }
+
+    // Steady-state time after the ramp-up
+    public static long getLoadDurationSeconds() {
+        return Long.parseLong(get("loadDuration", "60"));
+    }
+
+    /**
+     * Target purchases started per second once ramped up; 0 runs every user back to back instead.
+     */
+    public static double getLoadArrivalRate() {
+        return Double.parseDouble(get("loadArrivalRate", "0"));
+    }
+
+    public static long getLoadReportIntervalSeconds() {
+        return Long.parseLong(get("loadReportInterval", "5"));
+    }
+
+    public static String getLoadReport() {
+        return get("loadReport", "target/load-report.json");
+    }
+
+    /**
+     * iframe types the card into Stripe's card element; stub does the same but answers
+     * Stripe's API calls with canned responses.
+     */
+    public static String getPayment() {
+        return get("payment", "iframe");
+    }
+
+    // How long the storefront stub's Stripe confirm endpoint takes to answer
+    public static long getStubStripeLatency() {
+        return Long.parseLong(get("stubStripeLatency", "500"));
+    }
+
+    /**
+     * Read navigation timing, paints and long tasks from the browser after the main page-object steps.
+     */
+    public static boolean isPerfTimingsEnabled() {
+        return Boolean.parseBoolean(get("perfTimings", "false"));
+    }
+
+    public static String getPerfHistory() {
+        return get("perfHistory", "target/perf-history.json");
+    }
+
+    /**
+     * step.metric=limit pairs, e.g. VoucherPage.navigate.lcp=2500; a step of * applies to every step.
+     */
+    public static Map<String, Long> getPerfBudgets() {
+        Map<String, Long> budgets = new LinkedHashMap<>();
+        for (String entry : getList("perfBudgets")) {
+            int eq = entry.lastIndexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("perfBudgets entry should be step.metric=limit: " + entry);
+            }
+            budgets.put(entry.substring(0, eq).trim(), Long.parseLong(entry.substring(eq + 1).trim()));
+        }
+        return budgets;
+    }
+
+    // Fail a test whose steps go over budget, rather than only reporting it
+    public static boolean isPerfGateEnabled() {
+        return Boolean.parseBoolean(get("perfGate", "false"));
     }
 }
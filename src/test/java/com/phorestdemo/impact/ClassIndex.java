@@ -0,0 +1,276 @@
+package com.phorestdemo.impact;
+
+import net.bytebuddy.jar.asm.AnnotationVisitor;
+import net.bytebuddy.jar.asm.ClassReader;
+import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.jar.asm.Handle;
+import net.bytebuddy.jar.asm.Label;
+import net.bytebuddy.jar.asm.MethodVisitor;
+import net.bytebuddy.jar.asm.Opcodes;
+import net.bytebuddy.jar.asm.Type;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * What each compiled class under com.phorestdemo calls, reads and spans in its source file,
+ * read from the bytecode with the ASM copy inside ByteBuddy.
+ *
+ * Methods are keyed by name only, so overloads share one entry. Field initialisers of static
+ * fields are traced through the static initialiser: the lines before each PUTSTATIC (and any
+ * lambdas created there) belong to that field. Compile-time constants have no initialiser
+ * code and so no lines of their own.
+ */
+final class ClassIndex {
+
+    private static final String ROOT_PACKAGE = "com/phorestdemo/";
+
+    private final Map<String, ClassInfo> classes = new LinkedHashMap<>();
+
+    private ClassIndex() {
+    }
+
+    /**
+     * Reads every class file under com/phorestdemo in a classes directory, e.g. target/test-classes.
+     */
+    static ClassIndex read(Path classesDir) {
+        ClassIndex index = new ClassIndex();
+        Path root = classesDir.resolve(ROOT_PACKAGE);
+        if (!Files.isDirectory(root)) {
+            return index;
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : (Iterable<Path>) files.filter(f -> f.toString().endsWith(".class"))::iterator) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    new ClassReader(in).accept(index.new Reader(), ClassReader.SKIP_FRAMES);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read classes under " + root, e);
+        }
+        return index;
+    }
+
+    ClassInfo get(String className) {
+        return classes.get(className);
+    }
+
+    Iterable<ClassInfo> classes() {
+        return classes.values();
+    }
+
+    /**
+     * The class that declares the method, looking up the superclasses as a virtual call would.
+     */
+    MethodInfo resolve(String className, String methodName) {
+        for (ClassInfo type = classes.get(className); type != null; type = classes.get(type.superName)) {
+            MethodInfo method = type.methods.get(methodName);
+            if (method != null) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    static final class ClassInfo {
+        final String name;
+        final String superName;
+        final Map<String, MethodInfo> methods = new LinkedHashMap<>();
+        // Static field -> lines of its initialiser, and the methods of this class it calls or
+        // references there (factories, lambdas, method references)
+        final Map<String, int[]> fieldLines = new LinkedHashMap<>();
+        final Map<String, List<String>> fieldCalls = new LinkedHashMap<>();
+        String sourceFile;
+
+        private ClassInfo(String name, String superName) {
+            this.name = name;
+            this.superName = superName;
+        }
+
+        String packageName() {
+            int dot = name.lastIndexOf('.');
+            return dot < 0 ? "" : name.substring(0, dot);
+        }
+
+        // "com/phorestdemo/pages/VoucherPage.java", the file the class was compiled from
+        String sourcePath() {
+            return packageName().replace('.', '/') + "/" + sourceFile;
+        }
+
+        boolean hasTests() {
+            return methods.values().stream().anyMatch(MethodInfo::isTest);
+        }
+    }
+
+    static final class MethodInfo {
+        final String owner;
+        final String name;
+        final Set<String> annotations = new LinkedHashSet<>();
+        // "Class#method"
+        final Set<String> calls = new LinkedHashSet<>();
+        // "Class.FIELD", static reads
+        final Set<String> reads = new LinkedHashSet<>();
+        // Classes of ours constructed here, e.g. anonymous classes
+        final Set<String> instantiates = new LinkedHashSet<>();
+        boolean synthetic;
+        int firstLine = Integer.MAX_VALUE;
+        int lastLine = Integer.MIN_VALUE;
+
+        private MethodInfo(String owner, String name) {
+            this.owner = owner;
+            this.name = name;
+        }
+
+        String id() {
+            return owner + "#" + name;
+        }
+
+        boolean hasLines() {
+            return firstLine <= lastLine;
+        }
+
+        boolean isTest() {
+            return annotations.stream().anyMatch(TEST_ANNOTATIONS::contains);
+        }
+
+        boolean isLifecycle() {
+            return annotations.stream().anyMatch(LIFECYCLE_ANNOTATIONS::contains);
+        }
+
+        private void line(int line) {
+            firstLine = Math.min(firstLine, line);
+            lastLine = Math.max(lastLine, line);
+        }
+    }
+
+    static final Set<String> TEST_ANNOTATIONS = Set.of("org.junit.jupiter.api.Test",
+            "org.junit.jupiter.api.TestFactory", "org.junit.jupiter.api.RepeatedTest",
+            "org.junit.jupiter.api.TestTemplate", "org.junit.jupiter.params.ParameterizedTest",
+            "com.phorestdemo.tests.BrowserTest");
+
+    private static final Set<String> LIFECYCLE_ANNOTATIONS = Set.of("org.junit.jupiter.api.BeforeEach",
+            "org.junit.jupiter.api.AfterEach", "org.junit.jupiter.api.BeforeAll", "org.junit.jupiter.api.AfterAll");
+
+    private static boolean ours(String internalName) {
+        return internalName != null && internalName.startsWith(ROOT_PACKAGE);
+    }
+
+    private static String className(String internalName) {
+        return internalName.replace('/', '.');
+    }
+
+    private final class Reader extends ClassVisitor {
+        private ClassInfo type;
+
+        private Reader() {
+            super(Opcodes.ASM9);
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            type = new ClassInfo(className(name), superName == null ? null : className(superName));
+            classes.put(type.name, type);
+        }
+
+        @Override
+        public void visitSource(String source, String debug) {
+            type.sourceFile = source;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            MethodInfo method = type.methods.computeIfAbsent(name, n -> new MethodInfo(type.name, n));
+            method.synthetic |= (access & Opcodes.ACC_SYNTHETIC) != 0 || name.startsWith("lambda$");
+            return new MethodReader(type, method);
+        }
+    }
+
+    private static final class MethodReader extends MethodVisitor {
+        private final ClassInfo type;
+        private final MethodInfo method;
+        private final boolean staticInit;
+        // Static initialiser only: the statement being read since the last PUTSTATIC
+        private int segmentFirst = Integer.MAX_VALUE;
+        private int segmentLast = Integer.MIN_VALUE;
+        private final List<String> segmentCalls = new ArrayList<>();
+
+        private MethodReader(ClassInfo type, MethodInfo method) {
+            super(Opcodes.ASM9);
+            this.type = type;
+            this.method = method;
+            this.staticInit = "<clinit>".equals(method.name);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            method.annotations.add(Type.getType(descriptor).getClassName());
+            return null;
+        }
+
+        @Override
+        public void visitLineNumber(int line, Label start) {
+            method.line(line);
+            segmentFirst = Math.min(segmentFirst, line);
+            segmentLast = Math.max(segmentLast, line);
+        }
+
+        @Override
+        public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+            if (ours(owner)) {
+                method.calls.add(className(owner) + "#" + name);
+                if (staticInit && className(owner).equals(type.name)) {
+                    segmentCalls.add(name);
+                }
+            }
+        }
+
+        @Override
+        public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+            if (!ours(owner)) {
+                return;
+            }
+            if (opcode == Opcodes.GETSTATIC) {
+                method.reads.add(className(owner) + "." + name);
+            } else if (staticInit && opcode == Opcodes.PUTSTATIC && className(owner).equals(type.name)) {
+                if (segmentFirst <= segmentLast) {
+                    type.fieldLines.put(name, new int[]{segmentFirst, segmentLast});
+                }
+                type.fieldCalls.put(name, new ArrayList<>(segmentCalls));
+                segmentFirst = Integer.MAX_VALUE;
+                segmentLast = Integer.MIN_VALUE;
+                segmentCalls.clear();
+            }
+        }
+
+        @Override
+        public void visitTypeInsn(int opcode, String typeName) {
+            if (opcode == Opcodes.NEW && ours(typeName)) {
+                method.instantiates.add(className(typeName));
+            }
+        }
+
+        @Override
+        public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrap, Object... arguments) {
+            // Lambdas and method references: the implementation method is a bootstrap argument
+            for (Object argument : arguments) {
+                if (argument instanceof Handle && ours(((Handle) argument).getOwner())) {
+                    Handle target = (Handle) argument;
+                    method.calls.add(className(target.getOwner()) + "#" + target.getName());
+                    if (staticInit && className(target.getOwner()).equals(type.name)) {
+                        segmentCalls.add(target.getName());
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.phorestdemo.impact;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The files and lines changed since a base ref, committed or not (untracked files included):
+ * git diff -U0 against the merge base of the ref and HEAD, so commits made on the base branch
+ * since are left out.
+ *
+ * Lines are line numbers in the current file. A hunk that only deletes lines is recorded as the
+ * lines either side of the deletion. Files with no lines (deleted, renamed, binary or mode-only
+ * changes) changed as a whole.
+ */
+final class GitDiff {
+
+    private static final Pattern HUNK = Pattern.compile("^@@ -\\d+(?:,\\d+)? \\+(\\d+)(?:,(\\d+))? @@");
+
+    // Path -> changed lines; empty when the whole file changed
+    private final Map<String, Set<Integer>> changes = new LinkedHashMap<>();
+
+    private GitDiff() {
+    }
+
+    static GitDiff since(String baseRef, Path repository) {
+        String base = baseRef;
+        try {
+            base = git(repository, "merge-base", baseRef, "HEAD").trim();
+        } catch (IllegalStateException e) {
+            System.err.println("No merge base for " + baseRef + ", diffing against it directly: " + e.getMessage());
+        }
+        GitDiff diff = parse(git(repository, "diff", "-U0", "--no-color", "--no-ext-diff", "--relative", "-M", base));
+        // New files git doesn't know about yet are changes too
+        for (String untracked : git(repository, "ls-files", "--others", "--exclude-standard").split("\n")) {
+            if (!untracked.isBlank()) {
+                diff.changes.put(untracked.trim(), new TreeSet<>());
+            }
+        }
+        return diff;
+    }
+
+    static GitDiff parse(String diff) {
+        GitDiff result = new GitDiff();
+        String path = null;
+        boolean wholeFile = false;
+        for (String line : diff.split("\n")) {
+            if (line.startsWith("diff --git ")) {
+                path = line.substring(line.lastIndexOf(" b/") + 3);
+                wholeFile = false;
+                result.changes.put(path, new TreeSet<>());
+            } else if (path == null) {
+                continue;
+            } else if (line.startsWith("deleted file mode")) {
+                wholeFile = true;
+            } else if (line.startsWith("rename from ")) {
+                result.changes.put(line.substring("rename from ".length()), new TreeSet<>());
+                wholeFile = true;
+            } else if (line.startsWith("@@") && !wholeFile) {
+                Matcher hunk = HUNK.matcher(line);
+                if (hunk.find()) {
+                    int start = Integer.parseInt(hunk.group(1));
+                    int count = hunk.group(2) == null ? 1 : Integer.parseInt(hunk.group(2));
+                    Set<Integer> lines = result.changes.get(path);
+                    if (count == 0) {
+                        lines.add(Math.max(1, start));
+                        lines.add(start + 1);
+                    }
+                    for (int i = 0; i < count; i++) {
+                        lines.add(start + i);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    Map<String, Set<Integer>> changes() {
+        return changes;
+    }
+
+    private static String git(Path repository, String... args) {
+        List<String> command = new ArrayList<>(List.of("git"));
+        command.addAll(Arrays.asList(args));
+        try {
+            Process process = new ProcessBuilder(command).directory(repository.toFile()).start();
+            // Read alongside stdout so neither pipe fills up; warnings must not end up in the diff
+            CompletableFuture<String> errors = CompletableFuture.supplyAsync(() -> read(process.getErrorStream()));
+            String output = read(process.getInputStream());
+            if (!process.waitFor(60, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                throw new IllegalStateException(String.join(" ", command) + " timed out");
+            }
+            if (process.exitValue() != 0) {
+                throw new IllegalStateException(String.join(" ", command) + " failed: " + errors.join().trim());
+            }
+            return output;
+        } catch (IOException | UncheckedIOException e) {
+            throw new IllegalStateException("Could not run " + String.join(" ", command), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted running " + String.join(" ", command), e);
+        }
+    }
+
+    private static String read(InputStream stream) {
+        try (InputStream in = stream) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.phorestdemo.impact;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Tag("UnitTests")
+class GitDiffTest {
+
+    @Test
+    void hunksGiveTheChangedLinesOfTheNewFile() {
+        Map<String, Set<Integer>> changes = GitDiff.parse(String.join("\n",
+                "diff --git a/src/A.java b/src/A.java",
+                "index 1111111..2222222 100644",
+                "--- a/src/A.java",
+                "+++ b/src/A.java",
+                "@@ -5 +5 @@ class A {",
+                "-    int a;",
+                "+    int b;",
+                "@@ -20,2 +20,3 @@ void run() {",
+                "-x",
+                "-y",
+                "+x",
+                "+y",
+                "+z")).changes();
+        assertEquals(Map.of("src/A.java", Set.of(5, 20, 21, 22)), changes);
+    }
+
+    @Test
+    void deletionOnlyHunkGivesTheLinesEitherSide() {
+        Map<String, Set<Integer>> changes = GitDiff.parse(String.join("\n",
+                "diff --git a/src/A.java b/src/A.java",
+                "--- a/src/A.java",
+                "+++ b/src/A.java",
+                "@@ -10,2 +9,0 @@",
+                "-gone",
+                "-gone too",
+                "@@ -1 +0,0 @@",
+                "-first line")).changes();
+        assertEquals(Set.of(1, 9, 10), changes.get("src/A.java"));
+    }
+
+    @Test
+    void addedFileGivesAllItsLines() {
+        Map<String, Set<Integer>> changes = GitDiff.parse(String.join("\n",
+                "diff --git a/src/New.java b/src/New.java",
+                "new file mode 100644",
+                "index 0000000..3333333",
+                "--- /dev/null",
+                "+++ b/src/New.java",
+                "@@ -0,0 +1,3 @@",
+                "+a",
+                "+b",
+                "+c")).changes();
+        assertEquals(Map.of("src/New.java", Set.of(1, 2, 3)), changes);
+    }
+
+    @Test
+    void removedFileChangesAsAWhole() {
+        Map<String, Set<Integer>> changes = GitDiff.parse(String.join("\n",
+                "diff --git a/src/Old.java b/src/Old.java",
+                "deleted file mode 100644",
+                "index 3333333..0000000",
+                "--- a/src/Old.java",
+                "+++ /dev/null",
+                "@@ -1,3 +0,0 @@",
+                "-a",
+                "-b",
+                "-c")).changes();
+        assertEquals(Map.of("src/Old.java", Set.of()), changes);
+    }
+
+    @Test
+    void renamedFileChangesAsAWholeUnderBothNames() {
+        Map<String, Set<Integer>> changes = GitDiff.parse(String.join("\n",
+                "diff --git a/src/Before.java b/src/After.java",
+                "similarity index 90%",
+                "rename from src/Before.java",
+                "rename to src/After.java",
+                "index 4444444..5555555 100644",
+                "--- a/src/Before.java",
+                "+++ b/src/After.java",
+                "@@ -3 +3 @@",
+                "-class Before {",
+                "+class After {",
+                "diff --git a/src/B.java b/src/B.java",
+                "--- a/src/B.java",
+                "+++ b/src/B.java",
+                "@@ -7 +7,2 @@",
+                "-b",
+                "+b",
+                "+c")).changes();
+        assertEquals(Map.of("src/After.java", Set.of(), "src/Before.java", Set.of(), "src/B.java", Set.of(7, 8)),
+                changes);
+    }
+}
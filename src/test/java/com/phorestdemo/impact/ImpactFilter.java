@@ -0,0 +1,45 @@
+package com.phorestdemo.impact;
+
+import com.phorestdemo.config.ConfigReader;
+import com.phorestdemo.sharding.TestDurations;
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+
+import java.util.Optional;
+
+/**
+ * Runs only the tests impacted since impactBase (see ImpactSelection), e.g. -DimpactBase=origin/main.
+ *
+ * Registered through META-INF/services next to ShardFilter; with both, a shard runs its share of
+ * the impacted tests. Test factories are selected like tests, as a whole.
+ */
+public class ImpactFilter implements PostDiscoveryFilter {
+
+    private final String base = ConfigReader.getImpactBase();
+
+    // Worked out on the first test seen, once per launcher
+    private ImpactSelection selection;
+
+    @Override
+    public synchronized FilterResult apply(TestDescriptor descriptor) {
+        if (base.isEmpty()) {
+            return FilterResult.included("impact selection off");
+        }
+        Optional<TestSource> source = descriptor.getSource();
+        if (source.isEmpty() || !(source.get() instanceof MethodSource)) {
+            return FilterResult.included("container");
+        }
+        if (selection == null) {
+            selection = ImpactSelection.fromConfig();
+            System.out.println("[impact] since " + base + ": " + selection.summary());
+        }
+        MethodSource method = (MethodSource) source.get();
+        String testId = TestDurations.testId(method.getClassName(), method.getMethodName());
+        return selection.includes(testId)
+                ? FilterResult.included("impacted since " + base)
+                : FilterResult.excluded("not impacted since " + base);
+    }
+}
@@ -0,0 +1,260 @@
+package com.phorestdemo.impact;
+
+import com.google.gson.GsonBuilder;
+import com.phorestdemo.impact.ClassIndex.ClassInfo;
+import com.phorestdemo.impact.ClassIndex.MethodInfo;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Which page-object methods and selectors each test can reach, and which of them a source line belongs to.
+ *
+ * Units are page methods ("com.phorestdemo.pages.VoucherPage#navigate"), page fields such as
+ * selectors ("com.phorestdemo.pages.VoucherPage.CHECK_OUT_BUTTON") and the methods of the test
+ * classes themselves. A test reaches everything its method, and its class's @BeforeEach/@AfterEach
+ * /@BeforeAll/@AfterAll methods, call transitively: direct calls, lambdas and method references,
+ * and every method of a class of ours they construct.
+ *
+ * Calls through interfaces are not followed to their implementations, which is why only page
+ * objects (called directly from tests) and test classes are tracked; ImpactSelection runs the
+ * full suite when anything else changes.
+ */
+final class ImpactIndex {
+
+    private static final String PAGES_PACKAGE = "com.phorestdemo.pages";
+
+    private final ClassIndex classes;
+    private final Set<String> trackedSources = new TreeSet<>();
+    private final Map<String, Set<String>> reach = new TreeMap<>();
+
+    private ImpactIndex(ClassIndex classes) {
+        this.classes = classes;
+    }
+
+    static ImpactIndex build(ClassIndex classes) {
+        ImpactIndex index = new ImpactIndex(classes);
+        for (ClassInfo type : classes.classes()) {
+            if (type.sourceFile != null && (isPageObject(type) || type.hasTests())) {
+                index.trackedSources.add(type.sourcePath());
+            }
+        }
+        for (ClassInfo type : classes.classes()) {
+            for (MethodInfo method : type.methods.values()) {
+                if (method.isTest()) {
+                    index.reach.put(method.id(), index.reachFrom(type, method));
+                }
+            }
+        }
+        return index;
+    }
+
+    private static boolean isPageObject(ClassInfo type) {
+        return PAGES_PACKAGE.equals(type.packageName()) && type.name.endsWith("Page");
+    }
+
+    private boolean tracked(String className) {
+        ClassInfo type = classes.get(className);
+        return type != null && type.sourceFile != null && trackedSources.contains(type.sourcePath());
+    }
+
+    private Set<String> reachFrom(ClassInfo testClass, MethodInfo test) {
+        Deque<MethodInfo> pending = new ArrayDeque<>();
+        pending.add(test);
+        for (ClassInfo type = testClass; type != null; type = classes.get(type.superName)) {
+            type.methods.values().stream().filter(MethodInfo::isLifecycle).forEach(pending::add);
+        }
+
+        Set<MethodInfo> visited = new HashSet<>();
+        Set<String> units = new TreeSet<>();
+        while (!pending.isEmpty()) {
+            MethodInfo method = pending.poll();
+            if (!visited.add(method)) {
+                continue;
+            }
+            if (tracked(method.owner)) {
+                units.add(method.id());
+            }
+            for (String read : method.reads) {
+                String owner = read.substring(0, read.lastIndexOf('.'));
+                if (tracked(owner)) {
+                    units.add(read);
+                }
+                // Reading a selector reaches whatever built it, e.g. the lambda of a custom selector
+                ClassInfo type = classes.get(owner);
+                if (type != null) {
+                    for (String call : type.fieldCalls.getOrDefault(read.substring(owner.length() + 1), List.of())) {
+                        MethodInfo callee = type.methods.get(call);
+                        if (callee != null) {
+                            pending.add(callee);
+                        }
+                    }
+                }
+            }
+            for (String call : method.calls) {
+                int hash = call.indexOf('#');
+                MethodInfo callee = classes.resolve(call.substring(0, hash), call.substring(hash + 1));
+                if (callee != null) {
+                    pending.add(callee);
+                }
+            }
+            for (String constructed : method.instantiates) {
+                ClassInfo type = classes.get(constructed);
+                if (type != null) {
+                    pending.addAll(type.methods.values());
+                }
+            }
+        }
+        return units;
+    }
+
+    Set<String> tests() {
+        return reach.keySet();
+    }
+
+    /**
+     * Whether changes to this source file (relative to the source root) can be narrowed to units.
+     */
+    boolean tracks(String sourcePath) {
+        return trackedSources.contains(sourcePath);
+    }
+
+    /**
+     * The units a changed line of a tracked source file belongs to. A line between two methods
+     * (a signature, doc comment or new method) belongs to the member below it. Any other line outside
+     * a member gives "Class#*", the whole class: imports, the class header, and lines among the fields
+     * that aren't a static initialiser, such as constants (which compile into the code using them).
+     */
+    Set<String> unitsAt(String sourcePath, int line) {
+        List<Span> spans = new ArrayList<>();
+        String outerClass = null;
+        for (ClassInfo type : classes.classes()) {
+            if (type.sourceFile != null && type.sourcePath().equals(sourcePath)) {
+                spans.addAll(spans(type));
+                if (outerClass == null || type.name.length() < outerClass.length()) {
+                    outerClass = type.name;
+                }
+            }
+        }
+        if (outerClass == null) {
+            return Set.of();
+        }
+
+        Span containing = null;
+        Span below = null;
+        int firstMethod = Integer.MAX_VALUE;
+        int last = Integer.MIN_VALUE;
+        for (Span span : spans) {
+            if (span.unit.contains("#")) {
+                firstMethod = Math.min(firstMethod, span.first);
+            }
+            last = Math.max(last, span.last);
+            if (span.first <= line && line <= span.last
+                    && (containing == null || span.last - span.first < containing.last - containing.first)) {
+                containing = span;
+            }
+            if (span.first > line && (below == null || span.first < below.first)) {
+                below = span;
+            }
+        }
+        if (containing != null) {
+            return Set.of(containing.unit);
+        }
+        if (line < firstMethod || line > last || below == null) {
+            return Set.of(outerClass + "#*");
+        }
+        return Set.of(below.unit);
+    }
+
+    // Line spans of a class's methods and static field initialisers; lambdas count towards
+    // the method or field that creates them
+    private List<Span> spans(ClassInfo type) {
+        List<Span> spans = new ArrayList<>();
+        for (MethodInfo method : type.methods.values()) {
+            if (method.hasLines() && !method.synthetic && !"<clinit>".equals(method.name)) {
+                Span span = new Span(method.id(), method.firstLine, method.lastLine);
+                String prefix = "lambda$" + ("<init>".equals(method.name) ? "new" : method.name) + "$";
+                type.methods.values().stream().filter(m -> m.name.startsWith(prefix)).forEach(span::cover);
+                spans.add(span);
+            }
+        }
+        type.fieldLines.forEach((field, lines) -> {
+            Span span = new Span(type.name + "." + field, lines[0], lines[1]);
+            for (String call : type.fieldCalls.getOrDefault(field, List.of())) {
+                MethodInfo method = type.methods.get(call);
+                if (method != null && method.synthetic) {
+                    span.cover(method);
+                }
+            }
+            spans.add(span);
+        });
+        return spans;
+    }
+
+    /**
+     * The tests that reach any of the units. "Class#*" matches every unit of that class.
+     */
+    Set<String> testsReaching(Collection<String> units) {
+        Set<String> tests = new LinkedHashSet<>();
+        reach.forEach((test, reached) -> {
+            for (String unit : units) {
+                if (reached.contains(unit) || unit.endsWith("#*") && reachesClass(reached, unit)) {
+                    tests.add(test);
+                    return;
+                }
+            }
+        });
+        return tests;
+    }
+
+    private static boolean reachesClass(Set<String> reached, String wholeClass) {
+        String className = wholeClass.substring(0, wholeClass.length() - 2);
+        return reached.stream().anyMatch(unit -> unit.startsWith(className + "#") || unit.startsWith(className + ".")
+                || unit.startsWith(className + "$"));
+    }
+
+    /**
+     * Test -> reached units, for looking up why a test was (or wasn't) selected.
+     */
+    void writeJson(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(reach, writer);
+        }
+    }
+
+    private static final class Span {
+        private final String unit;
+        private int first;
+        private int last;
+
+        private Span(String unit, int first, int last) {
+            this.unit = unit;
+            this.first = first;
+            this.last = last;
+        }
+
+        private void cover(MethodInfo lambda) {
+            if (lambda.hasLines()) {
+                first = Math.min(first, lambda.firstLine);
+                last = Math.max(last, lambda.lastLine);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.phorestdemo.impact;
+
+import com.phorestdemo.config.ConfigReader;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The tests a change since impactBase can affect.
+ *
+ * Changed lines in the page objects (VoucherPage, SummaryPage, ReceiptPage) and test classes are
+ * mapped to the methods and selector fields they belong to, and only tests that reach one of
+ * those (see ImpactIndex) are selected. Documentation (*.md) never selects anything. Any other
+ * change selects the full suite: BaseTest and ConfigReader are behind every test, and the rest
+ * (browser, mail, stubs, resources, the pom) is reached in ways the index can't see, such as
+ * through interfaces or config.
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.phorestdemo.impact.ImpactSelection
+ *     -DimpactBase=origin/main
+ */
+public final class ImpactSelection {
+
+    static final String SOURCE_ROOT = "src/test/java/";
+
+    private static final List<String> FULL_SUITE_SOURCES = List.of(
+            "com/phorestdemo/tests/BaseTest.java", "com/phorestdemo/config/ConfigReader.java");
+
+    private final String fullSuiteReason;
+    private final Set<String> changedUnits;
+    private final Set<String> tests;
+    private final int totalTests;
+
+    private ImpactSelection(String fullSuiteReason, Set<String> changedUnits, Set<String> tests, int totalTests) {
+        this.fullSuiteReason = fullSuiteReason;
+        this.changedUnits = changedUnits;
+        this.tests = tests;
+        this.totalTests = totalTests;
+    }
+
+    static ImpactSelection fullSuite(String reason) {
+        return new ImpactSelection(reason, Set.of(), Set.of(), -1);
+    }
+
+    /**
+     * The selection for impactBase, diffing the working tree and indexing the compiled test classes.
+     * Falls back to the full suite, with the reason printed, if either can't be done.
+     */
+    public static ImpactSelection fromConfig() {
+        String base = ConfigReader.getImpactBase();
+        if (base.isEmpty()) {
+            return fullSuite("no impactBase set");
+        }
+        try {
+            ImpactIndex index = ImpactIndex.build(ClassIndex.read(testClassesDir()));
+            index.writeJson(Paths.get(ConfigReader.getImpactIndex()));
+            return select(GitDiff.since(base, Paths.get("").toAbsolutePath()), index);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not work out the tests impacted since " + base + ": " + e.getMessage());
+            return fullSuite("impact analysis failed");
+        }
+    }
+
+    private static Path testClassesDir() {
+        try {
+            return Paths.get(ImpactSelection.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Cannot locate the test classes", e);
+        }
+    }
+
+    static ImpactSelection select(GitDiff diff, ImpactIndex index) {
+        Set<String> units = new TreeSet<>();
+        for (Map.Entry<String, Set<Integer>> change : diff.changes().entrySet()) {
+            String path = change.getKey();
+            if (path.endsWith(".md")) {
+                continue;
+            }
+            String source = path.startsWith(SOURCE_ROOT) ? path.substring(SOURCE_ROOT.length()) : null;
+            if (source == null || !source.endsWith(".java")) {
+                return fullSuite(path + " changed");
+            }
+            if (FULL_SUITE_SOURCES.contains(source)) {
+                return fullSuite(source.substring(source.lastIndexOf('/') + 1) + " changed");
+            }
+            if (!index.tracks(source)) {
+                return fullSuite(path + " is not a page object or test class");
+            }
+            if (change.getValue().isEmpty()) {
+                units.add(source.substring(0, source.length() - ".java".length()).replace('/', '.') + "#*");
+            }
+            for (int line : change.getValue()) {
+                units.addAll(index.unitsAt(source, line));
+            }
+        }
+        return new ImpactSelection(null, units, index.testsReaching(units), index.tests().size());
+    }
+
+    public boolean isFullSuite() {
+        return fullSuiteReason != null;
+    }
+
+    /**
+     * Whether the test, as "Class#method", should run.
+     */
+    public boolean includes(String testId) {
+        return isFullSuite() || tests.contains(testId);
+    }
+
+    public Set<String> getTests() {
+        return tests;
+    }
+
+    public String summary() {
+        if (isFullSuite()) {
+            return "full suite: " + fullSuiteReason;
+        }
+        Set<String> shortUnits = new LinkedHashSet<>();
+        changedUnits.forEach(unit -> shortUnits.add(withoutPackage(unit)));
+        return tests.size() + " of " + totalTests + " tests impacted by " + changedUnits.size() + " changed units"
+                + (shortUnits.isEmpty() ? "" : " " + shortUnits);
+    }
+
+    // "com.phorestdemo.pages.VoucherPage.CHECK_OUT_BUTTON" -> "VoucherPage.CHECK_OUT_BUTTON"
+    private static String withoutPackage(String unit) {
+        int classEnd = unit.indexOf('#') >= 0 ? unit.indexOf('#') : unit.lastIndexOf('.');
+        return unit.substring(unit.lastIndexOf('.', classEnd - 1) + 1);
+    }
+
+    public static void main(String[] args) {
+        ImpactSelection selection = fromConfig();
+        System.out.println("[impact] since " + ConfigReader.getImpactBase() + ": " + selection.summary());
+        selection.getTests().forEach(test -> System.out.println("  " + test));
+    }
+}
@@ -0,0 +1,72 @@
+package com.phorestdemo.impact;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("UnitTests")
+class ImpactSelectionTest {
+
+    private static ImpactIndex index;
+
+    @BeforeAll
+    static void indexTestClasses() throws URISyntaxException {
+        index = ImpactIndex.build(ClassIndex.read(
+                Paths.get(ImpactSelectionTest.class.getProtectionDomain().getCodeSource().getLocation().toURI())));
+    }
+
+    @Test
+    void documentationSelectsNothing() {
+        ImpactSelection selection = select(file("README.md"));
+        assertFalse(selection.isFullSuite(), selection.summary());
+        assertTrue(selection.getTests().isEmpty(), selection.summary());
+    }
+
+    @Test
+    void baseTestAndOtherFilesSelectTheFullSuite() {
+        assertFullSuite(select(file("pom.xml")));
+        assertFullSuite(select(file(ImpactSelection.SOURCE_ROOT + "com/phorestdemo/tests/BaseTest.java")));
+        assertFullSuite(select(file(ImpactSelection.SOURCE_ROOT + "com/phorestdemo/browser/BrowserPool.java")));
+    }
+
+    @Test
+    void removedOrRenamedPageObjectSelectsEveryTestReachingIt() {
+        String page = ImpactSelection.SOURCE_ROOT + "com/phorestdemo/pages/ReceiptPage.java";
+        ImpactSelection removed = select(String.join("\n",
+                "diff --git a/" + page + " b/" + page,
+                "deleted file mode 100644",
+                "@@ -1,3 +0,0 @@"));
+        assertFalse(removed.isFullSuite(), removed.summary());
+        assertEquals(index.testsReaching(List.of("com.phorestdemo.pages.ReceiptPage#*")), removed.getTests());
+        assertTrue(removed.includes("com.phorestdemo.tests.VoucherTests#sendToMeTest"), removed.summary());
+
+        ImpactSelection renamed = select(String.join("\n",
+                "diff --git a/" + page + " b/" + page.replace("ReceiptPage", "ReceiptScreen"),
+                "rename from " + page,
+                "rename to " + page.replace("ReceiptPage", "ReceiptScreen")));
+        // The new name isn't in the compiled index yet, so only the full suite is safe
+        assertFullSuite(renamed);
+    }
+
+    private static ImpactSelection select(String diff) {
+        return ImpactSelection.select(GitDiff.parse(diff), index);
+    }
+
+    private static String file(String path) {
+        return String.join("\n",
+                "diff --git a/" + path + " b/" + path,
+                "@@ -1 +1 @@");
+    }
+
+    private static void assertFullSuite(ImpactSelection selection) {
+        assertTrue(selection.isFullSuite(), selection.summary());
+    }
+}
@@ -0,0 +1,105 @@
+package com.phorestdemo.load;
+
+import com.phorestdemo.config.ConfigReader;
+
+import java.util.Locale;
+
+/**
+ * Shape of a load run: how many virtual users, how long to ramp up and hold, and
+ * the target arrival rate.
+ *
+ * With an arrival rate of 0 every user starts its next purchase as soon as the last one
+ * finishes (closed model), and users join evenly over the ramp-up. With a rate, purchases
+ * start on a fixed schedule that climbs linearly to the rate over the ramp-up (open model).
+ * Users pick up the scheduled purchases and any that wait for a free user count that wait
+ * in their latency.
+ */
+public class LoadProfile {
+
+    private final int users;
+    private final long rampUpMillis;
+    private final long steadyMillis;
+    private final double arrivalRate;
+    private final long reportIntervalMillis;
+
+    public LoadProfile(int users, long rampUpMillis, long steadyMillis, double arrivalRate,
+                       long reportIntervalMillis) {
+        if (users < 1) {
+            throw new IllegalArgumentException("A load run needs at least 1 user, was " + users);
+        }
+        if (arrivalRate < 0) {
+            throw new IllegalArgumentException("Arrival rate can't be negative, was " + arrivalRate);
+        }
+        this.users = users;
+        this.rampUpMillis = Math.max(0, rampUpMillis);
+        this.steadyMillis = Math.max(0, steadyMillis);
+        this.arrivalRate = arrivalRate;
+        this.reportIntervalMillis = Math.max(1, reportIntervalMillis);
+    }
+
+    public static LoadProfile fromConfig() {
+        return new LoadProfile(
+                ConfigReader.getLoadUsers(),
+                ConfigReader.getLoadRampUpSeconds() * 1000,
+                ConfigReader.getLoadDurationSeconds() * 1000,
+                ConfigReader.getLoadArrivalRate(),
+                ConfigReader.getLoadReportIntervalSeconds() * 1000);
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public long getRampUpMillis() {
+        return rampUpMillis;
+    }
+
+    public long getSteadyMillis() {
+        return steadyMillis;
+    }
+
+    public long getTotalMillis() {
+        return rampUpMillis + steadyMillis;
+    }
+
+    // Purchases per second once ramped up; 0 for the closed model
+    public double getArrivalRate() {
+        return arrivalRate;
+    }
+
+    public boolean isOpenModel() {
+        return arrivalRate > 0;
+    }
+
+    public long getReportIntervalMillis() {
+        return reportIntervalMillis;
+    }
+
+    /**
+     * Offset from the start of the run at which the n-th scheduled purchase (from 1) starts.
+     * Arrivals ramp linearly to the full rate, so up to the end of the ramp-up the count is
+     * rate * t^2 / 2 * rampUp, and after that it grows by the rate.
+     */
+    long arrivalOffsetMillis(long n) {
+        double rampArrivals = arrivalRate * rampUpMillis / 1000.0 / 2;
+        double seconds;
+        if (n <= rampArrivals) {
+            seconds = Math.sqrt(2.0 * n * (rampUpMillis / 1000.0) / arrivalRate);
+        } else {
+            seconds = rampUpMillis / 1000.0 + (n - rampArrivals) / arrivalRate;
+        }
+        return Math.round(seconds * 1000);
+    }
+
+    // When user i (from 0) joins in the closed model
+    long userStartOffsetMillis(int user) {
+        return rampUpMillis * user / users;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%d users, %d s ramp-up, %d s steady, %s",
+                users, rampUpMillis / 1000, steadyMillis / 1000,
+                isOpenModel() ? String.format(Locale.ROOT, "%.2f purchases/s", arrivalRate) : "closed loop");
+    }
+}
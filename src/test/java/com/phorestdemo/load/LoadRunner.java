@@ -0,0 +1,226 @@
+package com.phorestdemo.load;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import com.phorestdemo.browser.BrowserPool;
+import com.phorestdemo.browser.BrowserWorker;
+import com.phorestdemo.config.ConfigReader;
+import com.phorestdemo.metrics.StepTimings;
+import com.phorestdemo.metrics.TimedPages;
+import com.phorestdemo.pages.ReceiptPage;
+import com.phorestdemo.pages.SummaryPage;
+import com.phorestdemo.pages.VoucherPage;
+import com.phorestdemo.payment.PaymentStrategy;
+import com.phorestdemo.scenarios.ScenarioGenerator;
+import com.phorestdemo.scenarios.VoucherScenario;
+import com.phorestdemo.stub.StorefrontStub;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives the voucher purchase flow as concurrent virtual users, for load-testing a storefront
+ * build with the same page objects as the UI tests.
+ *
+ * Each user is a thread holding its own browser worker, because Playwright objects can only
+ * be used by one thread. Every purchase gets a fresh context. Scenarios come from
+ * ScenarioGenerator, so purchases vary the same way the generated tests do.
+ *
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.phorestdemo.load.LoadRunner
+ *     -DloadUsers=8 -DloadRampUp=30 -DloadDuration=300 -DloadArrivalRate=0.5 -DbaseUrl=https://staging...
+ */
+public class LoadRunner {
+
+    private final String baseUrl;
+    private final LoadProfile profile;
+    private final ScenarioGenerator scenarios;
+    private final AtomicLong nextScenario = new AtomicLong();
+
+    public LoadRunner(String baseUrl, LoadProfile profile, ScenarioGenerator scenarios) {
+        this.baseUrl = baseUrl;
+        this.profile = profile;
+        this.scenarios = scenarios;
+    }
+
+    public static void main(String[] args) throws IOException {
+        StorefrontStub stub = ConfigReader.useLocalStorefront() ? StorefrontStub.start(ConfigReader.getStubPort()) : null;
+        try {
+            String baseUrl = stub != null ? stub.getBaseUrl() : ConfigReader.getBaseUrl();
+            LoadRunner runner = new LoadRunner(baseUrl, LoadProfile.fromConfig(),
+                    new ScenarioGenerator(ConfigReader.getScenarioSeed(), ConfigReader.getScenarioPresetAmounts()));
+            LoadStats stats = runner.run();
+
+            Path report = Paths.get(ConfigReader.getLoadReport());
+            stats.writeJson(report, runner.profile);
+            System.out.println("[load] written to " + report.toAbsolutePath());
+            if (ConfigReader.isStepTimingEnabled()) {
+                StepTimings.shared().close();
+            }
+        } finally {
+            if (stub != null) {
+                stub.close();
+            }
+        }
+    }
+
+    /**
+     * Runs the profile to the end, printing a line per report interval, and returns the results.
+     * Purchases still going when the time is up are allowed to finish.
+     */
+    public LoadStats run() {
+        System.out.println("[load] " + profile + " against " + baseUrl);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.MILLISECONDS.toNanos(profile.getTotalMillis());
+        LoadStats stats = new LoadStats(start, profile.getReportIntervalMillis());
+        BlockingQueue<Long> due = new LinkedBlockingQueue<>();
+
+        BrowserPool browserPool = new BrowserPool(profile.getUsers());
+        AtomicInteger threadIds = new AtomicInteger();
+        ExecutorService users = Executors.newFixedThreadPool(profile.getUsers(), runnable -> {
+            Thread thread = new Thread(runnable, "load-user-" + threadIds.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int user = 0; user < profile.getUsers(); user++) {
+                int id = user;
+                users.execute(() -> virtualUser(id, browserPool, start, end, due, stats));
+            }
+            schedule(start, end, due, stats);
+
+            users.shutdown();
+            if (!users.awaitTermination(5, TimeUnit.MINUTES)) {
+                System.err.println("[load] users still busy 5 minutes after the run ended");
+            }
+            stats.unserved(due.size());
+            stats.finish(System.nanoTime());
+            printInterval(stats, start, System.nanoTime());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during the load run", e);
+        } finally {
+            users.shutdownNow();
+            browserPool.close();
+        }
+
+        System.out.println("[load] " + stats.summary());
+        String errors = stats.errorTable();
+        if (!errors.isEmpty()) {
+            System.out.println("[load] errors");
+            System.out.print(errors);
+        }
+        return stats;
+    }
+
+    // Queues arrivals on the open-model schedule (nothing for the closed model) and prints each interval
+    private void schedule(long start, long end, BlockingQueue<Long> due, LoadStats stats) throws InterruptedException {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(profile.getReportIntervalMillis());
+        long nextReport = start + intervalNanos;
+        long n = 1;
+        long nextArrival = profile.isOpenModel()
+                ? start + TimeUnit.MILLISECONDS.toNanos(profile.arrivalOffsetMillis(n))
+                : Long.MAX_VALUE;
+        while (true) {
+            long now = System.nanoTime();
+            if (now >= nextReport) {
+                printInterval(stats, start, nextReport - 1);
+                nextReport += intervalNanos;
+            }
+            if (nextArrival < end && now >= nextArrival) {
+                stats.arrival(nextArrival);
+                due.add(nextArrival);
+                nextArrival = start + TimeUnit.MILLISECONDS.toNanos(profile.arrivalOffsetMillis(++n));
+                continue;
+            }
+            if (now >= end) {
+                return;
+            }
+            long wake = Math.min(Math.min(nextReport, end), nextArrival);
+            TimeUnit.NANOSECONDS.sleep(Math.max(0, wake - now));
+        }
+    }
+
+    private void printInterval(LoadStats stats, long start, long at) {
+        int index = (int) ((at - start) / TimeUnit.MILLISECONDS.toNanos(profile.getReportIntervalMillis()));
+        System.out.println("[load] " + stats.intervalLine(index));
+    }
+
+    private void virtualUser(int id, BrowserPool browserPool, long start, long end,
+                             BlockingQueue<Long> due, LoadStats stats) {
+        BrowserWorker worker;
+        try {
+            worker = browserPool.lease();
+        } catch (RuntimeException e) {
+            System.err.println("[load] user " + id + " could not start a browser: " + e.getMessage());
+            return;
+        }
+        try {
+            if (!profile.isOpenModel()) {
+                long joinAt = start + TimeUnit.MILLISECONDS.toNanos(profile.userStartOffsetMillis(id));
+                TimeUnit.NANOSECONDS.sleep(Math.max(0, joinAt - System.nanoTime()));
+            }
+            while (true) {
+                long dueAt;
+                if (profile.isOpenModel()) {
+                    Long next = due.poll(Math.max(0, end - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        return;
+                    }
+                    dueAt = next;
+                } else {
+                    dueAt = System.nanoTime();
+                    if (dueAt >= end) {
+                        return;
+                    }
+                    stats.arrival(dueAt);
+                }
+                purchase(worker, dueAt, stats);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            browserPool.release(worker);
+        }
+    }
+
+    private void purchase(BrowserWorker worker, long dueAt, LoadStats stats) {
+        VoucherScenario scenario = scenarios.scenario(nextScenario.getAndIncrement());
+        long began = System.nanoTime();
+        BrowserContext context = null;
+        try {
+            context = worker.getBrowser().newContext();
+            PaymentStrategy.fromConfig().prepare(context);
+            Page page = context.newPage();
+            page.setDefaultTimeout(ConfigReader.getDefaultTimeout());
+            PurchaseFlow.purchase(pageObject(VoucherPage.class, page), pageObject(SummaryPage.class, page),
+                    pageObject(ReceiptPage.class, page), scenario);
+            stats.completed(dueAt, began, System.nanoTime());
+        } catch (RuntimeException | AssertionError e) {
+            // Page objects assert on what they see (e.g. the selected amount), so count those too
+            stats.failed(dueAt, began, System.nanoTime(), e);
+        } finally {
+            if (context != null) {
+                try {
+                    context.close();
+                } catch (RuntimeException e) {
+                    System.err.println("[load] could not close context: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private <T> T pageObject(Class<T> type, Page page) {
+        if (ConfigReader.isStepTimingEnabled()) {
+            return TimedPages.create(type, page, baseUrl);
+        }
+        return TimedPages.createUntimed(type, page, baseUrl);
+    }
+}
@@ -0,0 +1,231 @@
+package com.phorestdemo.load;
+
+import com.google.gson.GsonBuilder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Results of a load run, overall and per report interval.
+ *
+ * Latency runs from when a purchase was due to start, so time spent waiting for a free
+ * user counts against the storefront rather than vanishing from the numbers. Service time
+ * is measured from when a user actually began the purchase.
+ * Purchases land in the interval they finished in, arrivals in the interval they were due.
+ * Values are microseconds in HdrHistograms, as in StepTimings.
+ */
+public class LoadStats {
+
+    private final long startNanos;
+    private final long intervalNanos;
+    private final Map<Integer, Window> windows = new ConcurrentHashMap<>();
+    private final Histogram latency = new ConcurrentHistogram(3);
+    private final Histogram serviceTime = new ConcurrentHistogram(3);
+    private final Histogram queueWait = new ConcurrentHistogram(3);
+    private final Map<String, LongAdder> errorKinds = new ConcurrentHashMap<>();
+    private final LongAdder arrivals = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private volatile long unserved;
+    private volatile long endNanos;
+
+    LoadStats(long startNanos, long intervalMillis) {
+        this.startNanos = startNanos;
+        this.intervalNanos = intervalMillis * 1_000_000;
+    }
+
+    void arrival(long dueNanos) {
+        arrivals.increment();
+        window(dueNanos).arrivals.increment();
+    }
+
+    void completed(long dueNanos, long beganNanos, long endNanos) {
+        completed.increment();
+        record(dueNanos, beganNanos, endNanos).completed.increment();
+    }
+
+    void failed(long dueNanos, long beganNanos, long endNanos, Throwable error) {
+        errors.increment();
+        record(dueNanos, beganNanos, endNanos).errors.increment();
+        errorKinds.computeIfAbsent(describe(error), kind -> new LongAdder()).increment();
+    }
+
+    private Window record(long dueNanos, long beganNanos, long endNanos) {
+        long micros = Math.max(1, (endNanos - dueNanos) / 1_000);
+        latency.recordValue(micros);
+        serviceTime.recordValue(Math.max(1, (endNanos - beganNanos) / 1_000));
+        queueWait.recordValue(Math.max(0, (beganNanos - dueNanos) / 1_000));
+        Window window = window(endNanos);
+        window.latency.recordValue(micros);
+        return window;
+    }
+
+    // Scheduled purchases no user got to before the run ended
+    void unserved(long count) {
+        unserved = count;
+    }
+
+    void finish(long endNanos) {
+        this.endNanos = endNanos;
+    }
+
+    private Window window(long nanos) {
+        int index = (int) (Math.max(0, nanos - startNanos) / intervalNanos);
+        return windows.computeIfAbsent(index, Window::new);
+    }
+
+    private static String describe(Throwable error) {
+        String message = String.valueOf(error.getMessage());
+        int newline = message.indexOf('\n');
+        if (newline >= 0) {
+            message = message.substring(0, newline);
+        }
+        if (message.length() > 100) {
+            message = message.substring(0, 100);
+        }
+        return error.getClass().getSimpleName() + ": " + message;
+    }
+
+    public long getArrivals() {
+        return arrivals.sum();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getUnserved() {
+        return unserved;
+    }
+
+    public double getErrorRate() {
+        long finished = getCompleted() + getErrors();
+        return finished == 0 ? 0 : (double) getErrors() / finished;
+    }
+
+    /**
+     * Successful purchases per second over the whole run.
+     */
+    public double getThroughput() {
+        double seconds = (endNanos - startNanos) / 1e9;
+        return seconds <= 0 ? 0 : getCompleted() / seconds;
+    }
+
+    public double getLatencyMillis(double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * One line for the interval, printed while the run is going.
+     */
+    String intervalLine(int index) {
+        Window window = windows.get(index);
+        if (window == null) {
+            window = new Window(index);
+        }
+        return window.line(intervalNanos);
+    }
+
+    public String summary() {
+        return String.format(Locale.ROOT,
+                "%d arrivals, %d completed, %d errors (%.1f%%), %d unserved; %.2f purchases/s;"
+                        + " latency p50 %.0f ms, p95 %.0f ms, p99 %.0f ms, max %.0f ms;"
+                        + " service p50 %.0f ms, queue wait p95 %.0f ms",
+                getArrivals(), getCompleted(), getErrors(), 100 * getErrorRate(), getUnserved(), getThroughput(),
+                getLatencyMillis(50), getLatencyMillis(95), getLatencyMillis(99), latency.getMaxValue() / 1000.0,
+                serviceTime.getValueAtPercentile(50) / 1000.0, queueWait.getValueAtPercentile(95) / 1000.0);
+    }
+
+    public String errorTable() {
+        StringBuilder table = new StringBuilder();
+        errorKinds.entrySet().stream()
+                .sorted(Map.Entry.<String, LongAdder>comparingByValue(
+                        (a, b) -> Long.compare(b.sum(), a.sum())))
+                .forEach(e -> table.append(String.format("%6d  %s%n", e.getValue().sum(), e.getKey())));
+        return table.toString();
+    }
+
+    public void writeJson(Path path, LoadProfile profile) throws IOException {
+        List<Map<String, Object>> intervals = new ArrayList<>();
+        int last = windows.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1);
+        for (int i = 0; i <= last; i++) {
+            Window window = windows.getOrDefault(i, new Window(i));
+            Histogram histogram = window.latency.copy();
+            Map<String, Object> interval = new LinkedHashMap<>();
+            interval.put("startSeconds", i * intervalNanos / 1e9);
+            interval.put("arrivals", window.arrivals.sum());
+            interval.put("completed", window.completed.sum());
+            interval.put("errors", window.errors.sum());
+            interval.put("throughput", window.completed.sum() / (intervalNanos / 1e9));
+            interval.put("p50Ms", histogram.getValueAtPercentile(50) / 1000.0);
+            interval.put("p95Ms", histogram.getValueAtPercentile(95) / 1000.0);
+            interval.put("p99Ms", histogram.getValueAtPercentile(99) / 1000.0);
+            intervals.add(interval);
+        }
+        Map<String, Long> errorCounts = new LinkedHashMap<>();
+        errorKinds.forEach((kind, count) -> errorCounts.put(kind, count.sum()));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("generatedAt", Instant.now().toString());
+        report.put("profile", profile.toString());
+        report.put("arrivals", getArrivals());
+        report.put("completed", getCompleted());
+        report.put("errors", getErrors());
+        report.put("unserved", getUnserved());
+        report.put("throughput", getThroughput());
+        report.put("p50Ms", getLatencyMillis(50));
+        report.put("p95Ms", getLatencyMillis(95));
+        report.put("p99Ms", getLatencyMillis(99));
+        report.put("errorKinds", errorCounts);
+        report.put("intervals", intervals);
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(report, writer);
+        }
+    }
+
+    private static final class Window {
+        private final int index;
+        private final LongAdder arrivals = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final Histogram latency = new ConcurrentHistogram(3);
+
+        private Window(int index) {
+            this.index = index;
+        }
+
+        private String line(long intervalNanos) {
+            Histogram histogram = latency.copy();
+            long done = completed.sum();
+            long failed = errors.sum();
+            return String.format(Locale.ROOT,
+                    "%5.0fs  arrivals %4d  completed %4d  errors %3d (%5.1f%%)  %6.2f/s  p50 %6.0f  p95 %6.0f  p99 %6.0f ms",
+                    (index + 1) * intervalNanos / 1e9, arrivals.sum(), done, failed,
+                    done + failed == 0 ? 0 : 100.0 * failed / (done + failed),
+                    done / (intervalNanos / 1e9),
+                    histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(95) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0);
+        }
+    }
+}
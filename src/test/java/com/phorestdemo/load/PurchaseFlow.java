@@ -0,0 +1,55 @@
+package com.phorestdemo.load;
+
+import com.phorestdemo.pages.ReceiptPage;
+import com.phorestdemo.pages.SummaryPage;
+import com.phorestdemo.pages.SummarySnapshot;
+import com.phorestdemo.pages.VoucherFormSnapshot;
+import com.phorestdemo.pages.VoucherPage;
+import com.phorestdemo.scenarios.VoucherScenario;
+
+/**
+ * One virtual user's purchase: a generated scenario driven through the same page objects
+ * as the UI tests. Checks only what tells a served page from a broken one (the amount
+ * carried through and a voucher code at the end) and throws IllegalStateException otherwise,
+ * so the runner counts it as an error.
+ */
+final class PurchaseFlow {
+
+    private PurchaseFlow() {
+    }
+
+    static String purchase(VoucherPage voucherPage, SummaryPage summaryPage, ReceiptPage receiptPage,
+                           VoucherScenario scenario) {
+        String amount = scenario.getExpectedAmount();
+
+        voucherPage.navigate();
+        voucherPage.fill(scenario.toForm());
+        VoucherFormSnapshot form = voucherPage.snapshot();
+        check("voucher form total", amount, form.totalCost());
+        voucherPage.clickCheckoutButton();
+
+        summaryPage.clickConfirmDetailsButton();
+        for (int edit = 0; edit < scenario.getEditLoops(); edit++) {
+            summaryPage.clickEditButton();
+            voucherPage.clickCheckoutButton();
+            summaryPage.clickConfirmDetailsButton();
+        }
+        SummarySnapshot summary = summaryPage.snapshot();
+        check("summary total", amount, summary.totalCost());
+
+        summaryPage.enterPaymentDetails("4111 1111 1111 1111", "12/26", "999");
+        summaryPage.clickPayButton();
+
+        String voucherCode = receiptPage.getVoucherCode();
+        if (voucherCode == null || voucherCode.isBlank()) {
+            throw new IllegalStateException("No voucher code on the receipt page");
+        }
+        return voucherCode;
+    }
+
+    private static void check(String what, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            throw new IllegalStateException(what + " was " + actual + ", expected " + expected);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.phorestdemo.mail;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A received message, independent of which {@link MailBackend} delivered it.
+ */
+public class Email {
+
+    private final String from;
+    private final List<String> to;
+    private final String subject;
+    private final String body;
+    private final Instant receivedAt;
+
+    public Email(String from, List<String> to, String subject, String body, Instant receivedAt) {
+        this.from = from;
+        this.to = List.copyOf(to);
+        this.subject = subject;
+        this.body = body;
+        this.receivedAt = receivedAt;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public List<String> getTo() {
+        return to;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public Instant getReceivedAt() {
+        return receivedAt;
+    }
+}
@@ -0,0 +1,153 @@
+package com.phorestdemo.mail;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Email assertions that run after the UI part of a test has finished, so the test can hand
+ * its browser back while the email is still on its way.
+ *
+ * A test registers what it expects with {@link #expect}. The check waits for the email off
+ * the test thread, runs the assertions on a small pool of daemon threads, then releases the
+ * mailbox. A mailbox whose email never arrived is retired instead, since a late email or a
+ * still-running poll would otherwise reach the next test to get it.
+ *
+ * {@link #join} blocks until a test class's checks are done and fails with all their
+ * failures. It is meant to be called from @AfterAll, so every check is reported before the
+ * suite ends.
+ */
+public class EmailChecks implements AutoCloseable {
+
+    private final MailBackend backend;
+    private final long timeoutMillis;
+    private final Queue<Check> checks = new ConcurrentLinkedQueue<>();
+    private final ExecutorService executor;
+
+    public EmailChecks(MailBackend backend, long timeoutMillis) {
+        this.backend = backend;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "email-check-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Waits in the background for the email with this subject, runs the assertions on it,
+     * then calls release (e.g. deleting the mailbox) whether or not they passed. If the email
+     * doesn't arrive in time, the wait is stopped and the mailbox retired through the backend.
+     *
+     * @param owner       the test, e.g. "VoucherTests.sendToMeTest()"; join() matches on its prefix
+     * @param description what the email is, for failure messages ("Receipt email")
+     */
+    public CompletableFuture<Void> expect(String owner, String description, Mailbox mailbox, String subject,
+                                          Consumer<Email> assertions, Runnable release) {
+        long registeredAt = System.nanoTime();
+        AtomicLong completedAt = new AtomicLong();
+        // orTimeout completes this same future, which stops the backend's wait
+        CompletableFuture<Email> received = backend.awaitEmail(mailbox, subject)
+                .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        CompletableFuture<Void> result = received
+                .thenAcceptAsync(assertions, executor)
+                .whenCompleteAsync((ignored, error) -> {
+                    if (received.isCompletedExceptionally()) {
+                        backend.retireMailbox(mailbox);
+                    } else {
+                        release.run();
+                    }
+                }, executor)
+                .whenComplete((ignored, error) -> completedAt.set(System.nanoTime()));
+        checks.add(new Check(owner, description, registeredAt, completedAt, result));
+        return result;
+    }
+
+    /**
+     * Waits for every check whose owner starts with the prefix and throws an AssertionError
+     * listing the ones that failed.
+     */
+    public void join(String ownerPrefix) {
+        List<Check> joined = new ArrayList<>();
+        for (Check check : checks) {
+            if (check.owner.startsWith(ownerPrefix)) {
+                joined.add(check);
+            }
+        }
+        List<Throwable> failures = new ArrayList<>();
+        for (Check check : joined) {
+            Throwable failure = check.await();
+            if (failure != null) {
+                failures.add(failure);
+            }
+            checks.remove(check);
+        }
+        if (!failures.isEmpty()) {
+            AssertionError error = new AssertionError(failures.size() + " of " + joined.size()
+                    + " deferred email checks failed: " + failures.get(0).getMessage());
+            failures.forEach(error::addSuppressed);
+            throw error;
+        }
+    }
+
+    @Override
+    public void close() {
+        // Checks no @AfterAll joined still get reported, just not against a test
+        if (!checks.isEmpty()) {
+            try {
+                join("");
+            } catch (AssertionError e) {
+                System.err.println("[email] " + e.getMessage());
+            }
+        }
+        executor.shutdownNow();
+    }
+
+    private final class Check {
+        private final String owner;
+        private final String description;
+        private final long registeredAt;
+        private final AtomicLong completedAt;
+        private final CompletableFuture<Void> result;
+
+        private Check(String owner, String description, long registeredAt, AtomicLong completedAt,
+                      CompletableFuture<Void> result) {
+            this.owner = owner;
+            this.description = description;
+            this.registeredAt = registeredAt;
+            this.completedAt = completedAt;
+            this.result = result;
+        }
+
+        // The failure, or null if the email arrived and its assertions passed
+        private Throwable await() {
+            Throwable failure = null;
+            try {
+                result.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                failure = cause instanceof TimeoutException
+                        ? new AssertionError(owner + ": " + description + " not received within "
+                                + timeoutMillis + " ms")
+                        : new AssertionError(owner + ": " + description + ": " + cause.getMessage(), cause);
+            }
+            Duration waited = Duration.ofNanos(completedAt.get() - registeredAt);
+            System.out.printf(Locale.ROOT, "[email] %s: %s %s, %.1f s after the UI finished%n",
+                    owner, description, failure == null ? "verified" : "FAILED", waited.toMillis() / 1000.0);
+            return failure;
+        }
+    }
+}
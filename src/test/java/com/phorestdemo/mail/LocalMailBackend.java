@@ -0,0 +1,86 @@
+package com.phorestdemo.mail;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process mail backend: an {@link SmtpSink} plus an index of received messages
+ * keyed by recipient address and subject.
+ *
+ * Whichever side gets to a key first - the waiting test or the arriving message -
+ * creates the future, and the other completes or picks it up. Nothing polls or sleeps,
+ * and creating a mailbox is just picking a fresh address.
+ */
+public class LocalMailBackend implements MailBackend {
+
+    private static final String DOMAIN = "phorestdemo.test";
+
+    private final Map<String, CompletableFuture<Email>> messages = new ConcurrentHashMap<>();
+    private final SmtpSink sink;
+
+    private LocalMailBackend(int smtpPort) {
+        this.sink = new SmtpSink(smtpPort, this::onMessage);
+    }
+
+    public static LocalMailBackend start(int smtpPort) {
+        return new LocalMailBackend(smtpPort);
+    }
+
+    public int getSmtpPort() {
+        return sink.getPort();
+    }
+
+    @Override
+    public Mailbox createMailbox() {
+        String id = UUID.randomUUID().toString();
+        return new Mailbox(id, "inbox-" + id + "@" + DOMAIN);
+    }
+
+    @Override
+    public CompletableFuture<Email> awaitEmail(Mailbox mailbox, String subject) {
+        // Hand out a copy so callers' timeouts/cancellations don't touch the indexed future
+        return slot(mailbox.getEmailAddress(), subject).copy();
+    }
+
+    private void onMessage(Email email) {
+        for (String recipient : email.getTo()) {
+            slot(recipient, email.getSubject()).complete(email);
+        }
+    }
+
+    private CompletableFuture<Email> slot(String address, String subject) {
+        return messages.computeIfAbsent(key(address, subject), k -> new CompletableFuture<>());
+    }
+
+    private static String key(String address, String subject) {
+        return address.toLowerCase(Locale.ROOT) + '\n' + subject;
+    }
+
+    @Override
+    public void deleteMailbox(Mailbox mailbox) {
+        if (mailbox == null)
+            return;
+        String prefix = mailbox.getEmailAddress().toLowerCase(Locale.ROOT) + '\n';
+        messages.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    @Override
+    public void clearMailbox(Mailbox mailbox) {
+        // Mailboxes here are only index entries, so clearing is the same as deleting
+        deleteMailbox(mailbox);
+    }
+
+    @Override
+    public OptionalInt localSmtpPort() {
+        return OptionalInt.of(getSmtpPort());
+    }
+
+    @Override
+    public void close() {
+        sink.close();
+    }
+}
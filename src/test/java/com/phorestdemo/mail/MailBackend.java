@@ -0,0 +1,68 @@
+package com.phorestdemo.mail;
+
+import com.phorestdemo.config.ConfigReader;
+
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Where the tests get inboxes from and read voucher emails.
+ *
+ * {@link LocalMailBackend} is an in-process SMTP sink for runs against the storefront stub;
+ * {@link MailSlurpBackend} talks to the real MailSlurp service (or its stand-in, MailSlurpStub).
+ * Either can be wrapped in a {@link MailboxPool} that recycles mailboxes between tests.
+ */
+public interface MailBackend extends AutoCloseable {
+
+    Mailbox createMailbox();
+
+    /**
+     * Completes with the first message sent to the mailbox with exactly this subject.
+     * The future never completes on its own if no such message arrives - callers bound the wait.
+     * Completing or cancelling it stops the wait.
+     */
+    CompletableFuture<Email> awaitEmail(Mailbox mailbox, String subject);
+
+    void deleteMailbox(Mailbox mailbox);
+
+    /**
+     * Deletes the mailbox for good, even when it came from a pool. For mailboxes whose wait
+     * gave up: a message arriving late must not reach whoever gets the mailbox next.
+     */
+    default void retireMailbox(Mailbox mailbox) {
+        deleteMailbox(mailbox);
+    }
+
+    /**
+     * Removes every message from the mailbox so it can be handed to another test.
+     */
+    void clearMailbox(Mailbox mailbox);
+
+    /**
+     * Port of an in-process SMTP server that delivers into this backend's mailboxes, if it has one.
+     * The storefront stub mails its receipts there.
+     */
+    default OptionalInt localSmtpPort() {
+        return OptionalInt.empty();
+    }
+
+    @Override
+    void close();
+
+    static MailBackend fromConfig() {
+        MailBackend backend;
+        switch (ConfigReader.getMailBackend().toLowerCase()) {
+            case "local":
+                backend = LocalMailBackend.start(ConfigReader.getSmtpPort());
+                break;
+            case "mailslurp-stub":
+                backend = MailSlurpBackend.againstStub(ConfigReader.getSmtpPort());
+                break;
+            case "mailslurp":
+            default:
+                backend = new MailSlurpBackend(System.getenv("MAILSLURP_API_KEY"), ConfigReader.getMailSlurpBaseUrl());
+        }
+        int poolSize = ConfigReader.getMailboxPoolSize();
+        return poolSize > 0 ? new MailboxPool(backend, poolSize) : backend;
+    }
+}
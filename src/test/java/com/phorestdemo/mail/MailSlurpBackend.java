@@ -0,0 +1,140 @@
+package com.phorestdemo.mail;
+
+import com.mailslurp.apis.InboxControllerApi;
+import com.mailslurp.apis.WaitForControllerApi;
+import com.mailslurp.clients.ApiClient;
+import com.mailslurp.models.InboxDto;
+import com.phorestdemo.stub.MailSlurpStub;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Remote inboxes on MailSlurp. Each wait is a server-side long poll, run off the test thread.
+ *
+ * mailslurpBaseUrl points the client elsewhere; {@link #againstStub} runs it against an
+ * in-process MailSlurpStub instead.
+ */
+public class MailSlurpBackend implements MailBackend {
+
+    private static final long LONG_POLL_TIMEOUT_MS = 15_000L;
+    private static final int MAX_POLLS = 12;
+
+    private final InboxControllerApi inboxApi;
+    private final WaitForControllerApi waitApi;
+    private final MailSlurpStub stub;
+    private final ExecutorService waiters = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "mailslurp-wait");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MailSlurpBackend(String apiKey, String baseUrl) {
+        this(apiKey, baseUrl, null);
+    }
+
+    private MailSlurpBackend(String apiKey, String baseUrl, MailSlurpStub stub) {
+        if (apiKey == null || apiKey.isBlank()) {
+            throw new RuntimeException("MAILSLURP_API_KEY environment variable is not set");
+        }
+
+        // Own client rather than the shared default, so a stub base path doesn't leak into other users
+        ApiClient client = new ApiClient();
+        client.setApiKey(apiKey);
+        client.setBasePath(baseUrl);
+
+        inboxApi = new InboxControllerApi(client);
+        waitApi = new WaitForControllerApi(client);
+        this.stub = stub;
+    }
+
+    /**
+     * The real client against a MailSlurpStub it starts and owns, with SMTP on smtpPort (0 = any free port).
+     */
+    public static MailSlurpBackend againstStub(int smtpPort) {
+        MailSlurpStub stub = MailSlurpStub.start(0, smtpPort);
+        return new MailSlurpBackend("stub", stub.getBaseUrl(), stub);
+    }
+
+    @Override
+    public Mailbox createMailbox() {
+        try {
+            InboxDto inbox = inboxApi.createInboxWithDefaults().execute();
+            return new Mailbox(inbox.getId().toString(), inbox.getEmailAddress());
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not create MailSlurp inbox", e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Email> awaitEmail(Mailbox mailbox, String subject) {
+        CompletableFuture<Email> result = new CompletableFuture<>();
+        waiters.execute(() -> poll(mailbox, subject, result));
+        return result;
+    }
+
+    // Stops between long polls once the caller has timed out or cancelled the future
+    private void poll(Mailbox mailbox, String subject, CompletableFuture<Email> result) {
+        for (int i = 0; i < MAX_POLLS && !result.isDone(); i++) {
+            try {
+                com.mailslurp.models.Email email = waitApi.waitForLatestEmail()
+                        .inboxId(UUID.fromString(mailbox.getId()))
+                        .timeout(LONG_POLL_TIMEOUT_MS)
+                        .unreadOnly(true)
+                        .execute();
+
+                if (email != null && subject.equals(email.getSubject())) {
+                    result.complete(new Email(
+                            email.getFrom(),
+                            email.getTo() != null ? email.getTo() : List.of(),
+                            email.getSubject(),
+                            email.getBody(),
+                            Instant.now()));
+                    return;
+                }
+            } catch (Exception ignored) {
+                // Long poll timed out or the API hiccuped - try again
+            }
+        }
+        result.completeExceptionally(new IllegalStateException("No email '" + subject + "' for " + mailbox));
+    }
+
+    @Override
+    public void deleteMailbox(Mailbox mailbox) {
+        if (mailbox == null)
+            return;
+        try {
+            inboxApi.deleteInbox(UUID.fromString(mailbox.getId())).execute();
+        } catch (Exception e) {
+            // Cleanup only - don't fail the test, but don't hide leaked inboxes either
+            System.err.println("Could not delete MailSlurp inbox " + mailbox + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void clearMailbox(Mailbox mailbox) {
+        try {
+            inboxApi.deleteAllInboxEmails(UUID.fromString(mailbox.getId())).execute();
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not clear MailSlurp inbox " + mailbox, e);
+        }
+    }
+
+    @Override
+    public OptionalInt localSmtpPort() {
+        return stub != null ? OptionalInt.of(stub.getSmtpPort()) : OptionalInt.empty();
+    }
+
+    @Override
+    public void close() {
+        waiters.shutdownNow();
+        if (stub != null) {
+            stub.close();
+        }
+    }
+}
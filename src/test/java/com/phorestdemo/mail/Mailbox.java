@@ -0,0 +1,28 @@
+package com.phorestdemo.mail;
+
+/**
+ * An address a test can receive email on, as handed out by a {@link MailBackend}.
+ */
+public class Mailbox {
+
+    private final String id;
+    private final String emailAddress;
+
+    public Mailbox(String id, String emailAddress) {
+        this.id = id;
+        this.emailAddress = emailAddress;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getEmailAddress() {
+        return emailAddress;
+    }
+
+    @Override
+    public String toString() {
+        return emailAddress;
+    }
+}
@@ -0,0 +1,196 @@
+package com.phorestdemo.mail;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Locale;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recycles mailboxes instead of creating and deleting one per test.
+ *
+ * On start it creates poolSize mailboxes in the background. {@link #createMailbox()} hands
+ * out an idle one if there is one (a hit), otherwise creates one on the caller's thread (a miss).
+ * Either way, a refill starts in the background once fewer than a quarter are idle.
+ * {@link #deleteMailbox} clears the mailbox and puts it back; mailboxes that can't be cleared
+ * are deleted for real, as are retired ones ({@link #retireMailbox}). Everything still idle is
+ * deleted on close.
+ *
+ * Prints hits, misses and lease waits at the end of the run.
+ */
+public class MailboxPool implements MailBackend {
+
+    private final MailBackend backend;
+    private final int poolSize;
+    private final BlockingQueue<Mailbox> idle = new LinkedBlockingQueue<>();
+    private final Set<Mailbox> leased = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger creating = new AtomicInteger();
+    private final ExecutorService workers;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder recycled = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+    // Lease wait in microseconds
+    private final Histogram leaseWait = new ConcurrentHistogram(3);
+
+    public MailboxPool(MailBackend backend, int poolSize) {
+        this.backend = backend;
+        this.poolSize = poolSize;
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.min(poolSize, 4), runnable -> {
+            Thread thread = new Thread(runnable, "mailbox-pool-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        refill();
+    }
+
+    @Override
+    public Mailbox createMailbox() {
+        long start = System.nanoTime();
+        Mailbox mailbox = idle.poll();
+        if (mailbox != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            mailbox = backend.createMailbox();
+            created.increment();
+        }
+        leased.add(mailbox);
+        leaseWait.recordValue(Math.max(1, (System.nanoTime() - start) / 1_000));
+
+        if (idle.size() + creating.get() < Math.max(1, poolSize / 4)) {
+            refill();
+        }
+        return mailbox;
+    }
+
+    /**
+     * Returns a leased mailbox to the pool once it's been cleared, in the background.
+     */
+    @Override
+    public void deleteMailbox(Mailbox mailbox) {
+        if (mailbox == null) {
+            return;
+        }
+        if (!leased.remove(mailbox)) {
+            backend.deleteMailbox(mailbox);
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+            try {
+                backend.clearMailbox(mailbox);
+                idle.offer(mailbox);
+                recycled.increment();
+            } catch (RuntimeException e) {
+                System.err.println("Could not recycle " + mailbox + ", deleting it: " + e.getMessage());
+                discarded.increment();
+                backend.deleteMailbox(mailbox);
+            }
+        }, workers);
+    }
+
+    /**
+     * Deletes a leased mailbox instead of recycling it, in the background, e.g. one whose email
+     * wait timed out or whose receipt may still arrive.
+     */
+    @Override
+    public void retireMailbox(Mailbox mailbox) {
+        if (mailbox == null) {
+            return;
+        }
+        if (leased.remove(mailbox)) {
+            discarded.increment();
+        }
+        CompletableFuture.runAsync(() -> backend.deleteMailbox(mailbox), workers);
+    }
+
+    @Override
+    public void clearMailbox(Mailbox mailbox) {
+        backend.clearMailbox(mailbox);
+    }
+
+    @Override
+    public CompletableFuture<Email> awaitEmail(Mailbox mailbox, String subject) {
+        return backend.awaitEmail(mailbox, subject);
+    }
+
+    @Override
+    public OptionalInt localSmtpPort() {
+        return backend.localSmtpPort();
+    }
+
+    // Tops the pool back up to poolSize idle (or being created) mailboxes
+    private void refill() {
+        while (true) {
+            int inFlight = creating.get();
+            if (idle.size() + inFlight >= poolSize) {
+                return;
+            }
+            if (creating.compareAndSet(inFlight, inFlight + 1)) {
+                CompletableFuture.runAsync(this::createIdle, workers);
+            }
+        }
+    }
+
+    private void createIdle() {
+        try {
+            idle.offer(backend.createMailbox());
+            created.increment();
+        } catch (RuntimeException e) {
+            System.err.println("Could not pre-create a mailbox: " + e.getMessage());
+        } finally {
+            creating.decrementAndGet();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public String summary() {
+        Histogram waits = leaseWait.copy();
+        return String.format(Locale.ROOT,
+                "pool %d: %d hits, %d misses, %d created, %d recycled, %d discarded;"
+                        + " lease wait p50 %.1f ms, p95 %.1f ms, max %.1f ms",
+                poolSize, hits.sum(), misses.sum(), created.sum(), recycled.sum(), discarded.sum(),
+                waits.getValueAtPercentile(50) / 1000.0, waits.getValueAtPercentile(95) / 1000.0,
+                waits.getMaxValue() / 1000.0);
+    }
+
+    @Override
+    public void close() {
+        workers.shutdown();
+        try {
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (hits.sum() + misses.sum() > 0) {
+            System.out.println("[mailboxes] " + summary());
+        }
+        Mailbox mailbox;
+        while ((mailbox = idle.poll()) != null) {
+            backend.deleteMailbox(mailbox);
+        }
+        // Leased and never handed back, e.g. by a test that crashed before its cleanup
+        leased.forEach(backend::deleteMailbox);
+        backend.close();
+    }
+}
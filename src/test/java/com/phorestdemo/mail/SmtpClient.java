@@ -0,0 +1,76 @@
+package com.phorestdemo.mail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Sends plain-text UTF-8 messages to an SMTP server without authentication or TLS.
+ * Meant for delivering to a loopback {@link SmtpSink}.
+ */
+public class SmtpClient {
+
+    private final String host;
+    private final int port;
+
+    public SmtpClient(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    public void send(String from, String to, String subject, String body) throws IOException {
+        try (Socket socket = new Socket(host, port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+
+            expect(in, 220);
+            command(out, in, "EHLO localhost", 250);
+            command(out, in, "MAIL FROM:<" + from + ">", 250);
+            command(out, in, "RCPT TO:<" + to + ">", 250);
+            command(out, in, "DATA", 354);
+
+            StringBuilder message = new StringBuilder()
+                    .append("From: ").append(from).append("\r\n")
+                    .append("To: ").append(to).append("\r\n")
+                    .append("Subject: =?UTF-8?B?")
+                    .append(Base64.getEncoder().encodeToString(subject.getBytes(StandardCharsets.UTF_8)))
+                    .append("?=\r\n")
+                    .append("MIME-Version: 1.0\r\n")
+                    .append("Content-Type: text/plain; charset=UTF-8\r\n")
+                    .append("Content-Transfer-Encoding: 8bit\r\n")
+                    .append("\r\n");
+            for (String line : body.split("\r?\n", -1)) {
+                // Dot-stuffing so a lone "." in the body doesn't end the message
+                message.append(line.startsWith(".") ? "." + line : line).append("\r\n");
+            }
+            message.append(".");
+            command(out, in, message.toString(), 250);
+            command(out, in, "QUIT", 221);
+        }
+    }
+
+    private static void command(Writer out, BufferedReader in, String line, int expectedCode) throws IOException {
+        out.write(line + "\r\n");
+        out.flush();
+        expect(in, expectedCode);
+    }
+
+    private static void expect(BufferedReader in, int expectedCode) throws IOException {
+        String line;
+        do {
+            line = in.readLine();
+            if (line == null) {
+                throw new IOException("SMTP server closed the connection");
+            }
+        } while (line.length() > 3 && line.charAt(3) == '-');
+
+        if (!line.startsWith(String.valueOf(expectedCode))) {
+            throw new IOException("Expected SMTP " + expectedCode + " but got: " + line);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.phorestdemo.mail;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Bare-bones SMTP listener that accepts every message and hands it to a callback.
+ * Understands just enough of RFC 5321 for the storefront stub and ordinary MTAs on loopback.
+ */
+public class SmtpSink implements AutoCloseable {
+
+    private static final Pattern ENCODED_WORD = Pattern.compile("=\\?([^?]+)\\?([bBqQ])\\?([^?]*)\\?=");
+    private static final Pattern ADDRESS = Pattern.compile("<([^>]*)>");
+
+    private final ServerSocket serverSocket;
+    private final Consumer<Email> onMessage;
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "smtp-sink");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SmtpSink(int port, Consumer<Email> onMessage) {
+        this.onMessage = onMessage;
+        try {
+            serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start SMTP sink on port " + port, e);
+        }
+        connections.execute(this::acceptLoop);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> handle(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("SMTP sink accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+
+            reply(out, "220 phorestdemo-sink ESMTP");
+            String from = null;
+            List<String> recipients = new ArrayList<>();
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase(Locale.ROOT) : line.toUpperCase(Locale.ROOT);
+                switch (command) {
+                    case "EHLO":
+                        reply(out, "250-phorestdemo-sink\r\n250-8BITMIME\r\n250 SMTPUTF8");
+                        break;
+                    case "HELO":
+                        reply(out, "250 phorestdemo-sink");
+                        break;
+                    case "MAIL":
+                        from = address(line);
+                        recipients.clear();
+                        reply(out, "250 OK");
+                        break;
+                    case "RCPT":
+                        recipients.add(address(line));
+                        reply(out, "250 OK");
+                        break;
+                    case "DATA":
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        String data = readData(in);
+                        reply(out, "250 OK queued");
+                        deliver(from, recipients, data);
+                        recipients = new ArrayList<>();
+                        break;
+                    case "RSET":
+                        from = null;
+                        recipients.clear();
+                        reply(out, "250 OK");
+                        break;
+                    case "NOOP":
+                        reply(out, "250 OK");
+                        break;
+                    case "QUIT":
+                        reply(out, "221 Bye");
+                        return;
+                    default:
+                        reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            if (!serverSocket.isClosed()) {
+                System.err.println("SMTP sink connection failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void deliver(String from, List<String> recipients, String data) {
+        try {
+            onMessage.accept(parse(from, recipients, data));
+        } catch (RuntimeException e) {
+            System.err.println("SMTP sink could not deliver message: " + e.getMessage());
+        }
+    }
+
+    private static String readData(BufferedReader in) throws IOException {
+        StringBuilder data = new StringBuilder();
+        String line;
+        while ((line = in.readLine()) != null && !line.equals(".")) {
+            // Undo dot-stuffing
+            data.append(line.startsWith("..") ? line.substring(1) : line).append("\r\n");
+        }
+        return data.toString();
+    }
+
+    static Email parse(String from, List<String> recipients, String data) {
+        int split = data.indexOf("\r\n\r\n");
+        String head = split >= 0 ? data.substring(0, split) : data;
+        String body = split >= 0 ? data.substring(split + 4) : "";
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        String name = null;
+        for (String line : head.split("\r\n")) {
+            if ((line.startsWith(" ") || line.startsWith("\t")) && name != null) {
+                headers.merge(name, " " + line.trim(), String::concat);
+            } else if (line.contains(":")) {
+                name = line.substring(0, line.indexOf(':')).trim().toLowerCase(Locale.ROOT);
+                headers.put(name, line.substring(line.indexOf(':') + 1).trim());
+            }
+        }
+
+        if ("base64".equalsIgnoreCase(headers.getOrDefault("content-transfer-encoding", ""))) {
+            body = new String(Base64.getMimeDecoder().decode(body), StandardCharsets.UTF_8);
+        }
+        if (body.endsWith("\r\n")) {
+            body = body.substring(0, body.length() - 2);
+        }
+
+        return new Email(from, recipients, decodeHeader(headers.getOrDefault("subject", "")), body, Instant.now());
+    }
+
+    // RFC 2047 encoded-words, e.g. =?UTF-8?B?...?=
+    static String decodeHeader(String value) {
+        // Whitespace between adjacent encoded-words is not part of the text
+        Matcher matcher = ENCODED_WORD.matcher(value.replaceAll("\\?=\\s+=\\?", "?==?"));
+        StringBuilder decoded = new StringBuilder();
+        while (matcher.find()) {
+            Charset charset = Charset.forName(matcher.group(1));
+            byte[] bytes;
+            if (matcher.group(2).equalsIgnoreCase("B")) {
+                bytes = Base64.getDecoder().decode(matcher.group(3));
+            } else {
+                bytes = decodeQ(matcher.group(3));
+            }
+            matcher.appendReplacement(decoded, Matcher.quoteReplacement(new String(bytes, charset)));
+        }
+        matcher.appendTail(decoded);
+        return decoded.toString();
+    }
+
+    private static byte[] decodeQ(String text) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '_') {
+                bytes.write(' ');
+            } else if (c == '=' && i + 2 < text.length()) {
+                bytes.write(Integer.parseInt(text.substring(i + 1, i + 3), 16));
+                i += 2;
+            } else {
+                bytes.write(c);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String address(String line) {
+        Matcher matcher = ADDRESS.matcher(line);
+        if (matcher.find()) {
+            return matcher.group(1).trim();
+        }
+        return line.substring(line.indexOf(':') + 1).trim();
+    }
+
+    private static void reply(Writer out, String response) throws IOException {
+        out.write(response + "\r\n");
+        out.flush();
+    }
+
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+        }
+        connections.shutdownNow();
+    }
+}
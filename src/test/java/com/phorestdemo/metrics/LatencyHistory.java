@@ -0,0 +1,114 @@
+package com.phorestdemo.metrics;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The most recent latencies (ms) per key, kept across runs in a JSON file. Used for the learned
+ * element waits (waitHistory) and the browser timings' earlier runs (perfHistory); callers choose
+ * what to record, e.g. only successful waits.
+ */
+public class LatencyHistory {
+
+    private static final Type FILE_TYPE = new TypeToken<Map<String, List<Long>>>() {
+    }.getType();
+
+    private final int window;
+    private final Map<String, Deque<Long>> samples = new ConcurrentHashMap<>();
+
+    public LatencyHistory(int window) {
+        this.window = window;
+    }
+
+    public static LatencyHistory load(Path file, int window) {
+        LatencyHistory history = new LatencyHistory(window);
+        if (!Files.isRegularFile(file)) {
+            return history;
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Map<String, List<Long>> stored = new Gson().fromJson(reader, FILE_TYPE);
+            if (stored != null) {
+                stored.forEach((key, values) -> values.forEach(value -> history.record(key, value)));
+            }
+        } catch (IOException | JsonParseException e) {
+            System.err.println("Could not read latency history from " + file + ": " + e.getMessage());
+        }
+        return history;
+    }
+
+    public void save(Path file) {
+        Map<String, List<Long>> stored = new TreeMap<>();
+        samples.forEach((key, values) -> {
+            synchronized (values) {
+                stored.put(key, new ArrayList<>(values));
+            }
+        });
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                new GsonBuilder().setPrettyPrinting().create().toJson(stored, FILE_TYPE, writer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write latency history to " + file, e);
+        }
+    }
+
+    public void record(String key, long millis) {
+        Deque<Long> values = samples.computeIfAbsent(key, k -> new ArrayDeque<>());
+        synchronized (values) {
+            values.addLast(millis);
+            while (values.size() > window) {
+                values.removeFirst();
+            }
+        }
+    }
+
+    public int count(String key) {
+        Deque<Long> values = samples.get(key);
+        if (values == null) {
+            return 0;
+        }
+        synchronized (values) {
+            return values.size();
+        }
+    }
+
+    /**
+     * Nearest-rank percentile of the kept samples, or -1 with none.
+     */
+    public long percentile(String key, double percentile) {
+        Deque<Long> values = samples.get(key);
+        if (values == null) {
+            return -1;
+        }
+        long[] sorted;
+        synchronized (values) {
+            sorted = values.stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+        if (sorted.length == 0) {
+            return -1;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.min(sorted.length - 1, Math.max(0, rank - 1))];
+    }
+}
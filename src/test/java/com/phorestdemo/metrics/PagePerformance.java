@@ -0,0 +1,216 @@
+package com.phorestdemo.metrics;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import com.phorestdemo.config.ConfigReader;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Front-end timings from the browser itself, read after each {@link PerfStep} action.
+ *
+ * An init script on every context starts PerformanceObserver instances for paints, LCP and long
+ * tasks (Chromium reports all of them; other browsers report what they support). After a step,
+ * one evaluate reads the long tasks since the previous step and, on the first step after a
+ * page load, the navigation timing and first and largest contentful paint. Per step it records:
+ *
+ * step                              wall time of the action
+ * ttfb, domContentLoaded, load      navigation timing, on the step that loaded the page
+ * fcp, lcp                          paints, on the step that loaded the page
+ * longTasks, tbt                    long tasks and their blocking time (over 50 ms each)
+ *
+ * Samples stay with their page until the test collects them (PerfReport attaches them to the
+ * test result), and also go into per-step histograms for this run. At the end of the run the
+ * table compares this run's p75 with the p75 of earlier runs (perfHistory) and the
+ * configured perfBudgets.
+ */
+public class PagePerformance implements AutoCloseable {
+
+    private static final String INIT_SCRIPT = "(() => {\n"
+            + "  if (window.__perfProbe) return;\n"
+            + "  const probe = window.__perfProbe = { fcp: null, lcp: null, longTasks: [] };\n"
+            + "  const observe = (type, onEntry) => {\n"
+            + "    try {\n"
+            + "      new PerformanceObserver(list => list.getEntries().forEach(onEntry))\n"
+            + "          .observe({ type: type, buffered: true });\n"
+            + "    } catch (e) { /* entry type not supported by this browser */ }\n"
+            + "  };\n"
+            + "  observe('paint', e => { if (e.name === 'first-contentful-paint') probe.fcp = e.startTime; });\n"
+            + "  observe('largest-contentful-paint', e => { probe.lcp = e.renderTime || e.loadTime || e.startTime; });\n"
+            + "  observe('longtask', e => probe.longTasks.push(e.duration));\n"
+            + "})();";
+
+    // Long tasks are taken (and cleared) so each step only reports its own
+    private static final String READ_SCRIPT = "() => {\n"
+            + "  const probe = window.__perfProbe;\n"
+            + "  if (!probe) return null;\n"
+            + "  const tasks = probe.longTasks.splice(0);\n"
+            + "  const out = { document: performance.timeOrigin, longTasks: tasks.length,\n"
+            + "                tbt: tasks.reduce((sum, d) => sum + Math.max(0, d - 50), 0) };\n"
+            + "  const nav = performance.getEntriesByType('navigation')[0];\n"
+            + "  if (nav) {\n"
+            + "    out.ttfb = nav.responseStart;\n"
+            + "    out.domContentLoaded = nav.domContentLoadedEventEnd;\n"
+            + "    if (nav.loadEventEnd > 0) out.load = nav.loadEventEnd;\n"
+            + "  }\n"
+            + "  if (probe.fcp !== null) out.fcp = probe.fcp;\n"
+            + "  if (probe.lcp !== null) out.lcp = probe.lcp;\n"
+            + "  return out;\n"
+            + "}";
+
+    // Reported only by the first step on a document, the one that loaded it
+    private static final List<String> PAGE_LOAD_METRICS = List.of("ttfb", "domContentLoaded", "load", "fcp", "lcp");
+
+    private static volatile PagePerformance shared;
+
+    private final Map<Page, List<PerfSample>> pending = Collections.synchronizedMap(new WeakHashMap<>());
+    // Documents already reported, so navigation timing is only counted for the step that loaded them
+    private final Map<Page, Object> reportedDocument = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, Long> budgets;
+    private final Path historyFile;
+    private final LatencyHistory history;
+
+    public PagePerformance(Map<String, Long> budgets, Path historyFile) {
+        this.budgets = budgets;
+        this.historyFile = historyFile;
+        this.history = LatencyHistory.load(historyFile, 200);
+    }
+
+    public static PagePerformance shared() {
+        if (shared == null) {
+            synchronized (PagePerformance.class) {
+                if (shared == null) {
+                    shared = new PagePerformance(ConfigReader.getPerfBudgets(),
+                            Paths.get(ConfigReader.getPerfHistory()));
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Starts the observers in every page the context opens. Call before its first page.
+     */
+    public void install(BrowserContext context) {
+        context.addInitScript(INIT_SCRIPT);
+    }
+
+    /**
+     * Reads the page's performance data after a step. Never throws: a probe problem
+     * shouldn't fail the step it was measuring.
+     */
+    public void sample(Page page, String step, String browser, long stepNanos) {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        metrics.put("step", stepNanos / 1_000_000);
+        try {
+            Object result = page.evaluate(READ_SCRIPT);
+            if (result instanceof Map) {
+                Map<?, ?> values = (Map<?, ?>) result;
+                Object document = values.get("document");
+                boolean loadedHere = document != null && !document.equals(reportedDocument.put(page, document));
+                values.forEach((metric, value) -> {
+                    String name = metric.toString();
+                    if (value instanceof Number && !"document".equals(name)
+                            && (loadedHere || !PAGE_LOAD_METRICS.contains(name))) {
+                        metrics.put(name, Math.round(((Number) value).doubleValue()));
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Could not read performance data after " + step + ": " + e.getMessage());
+        }
+
+        PerfSample sample = new PerfSample(step, browser, metrics);
+        pending.computeIfAbsent(page, p -> Collections.synchronizedList(new ArrayList<>())).add(sample);
+        metrics.forEach((metric, value) -> histograms
+                .computeIfAbsent(key(browser, step, metric), k -> new ConcurrentHistogram(3))
+                .recordValue(Math.max(0, value)));
+    }
+
+    /**
+     * The samples taken on this page since the last call, in step order.
+     */
+    public List<PerfSample> drain(Page page) {
+        List<PerfSample> samples = pending.remove(page);
+        reportedDocument.remove(page);
+        if (samples == null) {
+            return List.of();
+        }
+        synchronized (samples) {
+            return new ArrayList<>(samples);
+        }
+    }
+
+    /**
+     * Metrics in the sample over their budget, e.g. "VoucherPage.navigate lcp 3120 ms > 2500 ms".
+     */
+    public List<String> overBudget(PerfSample sample) {
+        List<String> breaches = new ArrayList<>();
+        sample.metrics().forEach((metric, value) -> {
+            Long budget = budgetFor(sample.step(), metric);
+            if (budget != null && value > budget) {
+                breaches.add(String.format(Locale.ROOT, "%s %s %d%s > %d%s",
+                        sample.step(), metric, value, unit(metric), budget, unit(metric)));
+            }
+        });
+        return breaches;
+    }
+
+    // "VoucherPage.navigate.lcp" wins over "*.lcp"
+    private Long budgetFor(String step, String metric) {
+        Long budget = budgets.get(step + "." + metric);
+        return budget != null ? budget : budgets.get("*." + metric);
+    }
+
+    private static String unit(String metric) {
+        return "longTasks".equals(metric) ? "" : " ms";
+    }
+
+    private static String key(String browser, String step, String metric) {
+        return browser + " " + step + " " + metric;
+    }
+
+    public String table() {
+        StringBuilder table = new StringBuilder(String.format("%-9s %-36s %-17s %6s %8s %8s %8s %10s %8s%n",
+                "browser", "step", "metric", "count", "p50", "p75", "p95", "prev p75", "budget"));
+        new TreeMap<>(histograms).forEach((key, histogram) -> {
+            String[] parts = key.split(" ", 3);
+            Histogram copy = histogram.copy();
+            long p75 = copy.getValueAtPercentile(75);
+            long previous = history.percentile(key, 75);
+            Long budget = budgetFor(parts[1], parts[2]);
+            table.append(String.format(Locale.ROOT, "%-9s %-36s %-17s %6d %8d %8d %8d %10s %8s%s%n",
+                    parts[0], parts[1], parts[2], copy.getTotalCount(),
+                    copy.getValueAtPercentile(50), p75, copy.getValueAtPercentile(95),
+                    previous < 0 ? "-" : String.valueOf(previous),
+                    budget == null ? "-" : String.valueOf(budget),
+                    budget != null && p75 > budget ? "  OVER" : ""));
+        });
+        return table.toString();
+    }
+
+    @Override
+    public void close() {
+        if (histograms.isEmpty()) {
+            return;
+        }
+        System.out.println("[perf] browser timings per step (ms; longTasks is a count)");
+        System.out.print(table());
+        // This run's p75 joins the history once the table has compared against earlier runs
+        histograms.forEach((key, histogram) -> history.record(key, histogram.copy().getValueAtPercentile(75)));
+        history.save(historyFile);
+    }
+}
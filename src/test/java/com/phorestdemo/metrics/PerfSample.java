@@ -0,0 +1,18 @@
+package com.phorestdemo.metrics;
+
+import java.util.Map;
+
+/**
+ * Browser performance data for one step of one test, in milliseconds (longTasks is a count).
+ * Metrics the browser doesn't support, or that don't apply to the step, are absent.
+ */
+public record PerfSample(String step, String browser, Map<String, Long> metrics) {
+
+    @Override
+    public String toString() {
+        StringBuilder line = new StringBuilder();
+        metrics.forEach((metric, value) -> line.append(line.length() == 0 ? "" : ", ")
+                .append(metric).append(' ').append(value));
+        return line.toString();
+    }
+}
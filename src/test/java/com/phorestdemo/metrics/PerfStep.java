@@ -0,0 +1,16 @@
+package com.phorestdemo.metrics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a page-object action after which {@link PagePerformance} reads the browser's
+ * performance data (navigation timing, paints, long tasks) when perfTimings=true.
+ * Only takes effect on page objects created through {@link TimedPages#create}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface PerfStep {
+}
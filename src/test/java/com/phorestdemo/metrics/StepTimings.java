@@ -0,0 +1,297 @@
+package com.phorestdemo.metrics;
+
+import com.google.gson.GsonBuilder;
+import com.phorestdemo.config.ConfigReader;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latency histograms for page-object actions, keyed by page, action and browser type.
+ * Values are recorded in microseconds into lock-free HdrHistograms.
+ *
+ * On close it prints a p50/p95/p99 table and writes the same data as JSON
+ * (stepTimingsReport in config.properties) for comparing builds. When more than one browser
+ * ran (browserMatrix), a second table puts each step's browsers side by side.
+ */
+public class StepTimings implements AutoCloseable {
+
+    private static volatile StepTimings shared;
+
+    private final Map<Key, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Path jsonReport;
+
+    public StepTimings(Path jsonReport) {
+        this.jsonReport = jsonReport;
+    }
+
+    public static StepTimings shared() {
+        if (shared == null) {
+            synchronized (StepTimings.class) {
+                if (shared == null) {
+                    shared = new StepTimings(Paths.get(ConfigReader.getStepTimingsReport()));
+                }
+            }
+        }
+        return shared;
+    }
+
+    public void record(String page, String action, String browserType, long nanos) {
+        histograms.computeIfAbsent(new Key(page, action, browserType), key -> new ConcurrentHistogram(3))
+                .recordValue(Math.max(1, nanos / 1_000));
+    }
+
+    /**
+     * Point-in-time copy of one step's histogram, or null if it never ran.
+     */
+    public Histogram snapshot(String page, String action, String browserType) {
+        Histogram histogram = histograms.get(new Key(page, action, browserType));
+        return histogram == null ? null : histogram.copy();
+    }
+
+    public List<StepSummary> summaries() {
+        List<StepSummary> summaries = new ArrayList<>();
+        histograms.forEach((key, histogram) -> summaries.add(new StepSummary(key, histogram.copy())));
+        summaries.sort(Comparator.comparingDouble((StepSummary s) -> s.p95Ms).reversed());
+        return summaries;
+    }
+
+    public String table() {
+        StringBuilder table = new StringBuilder(String.format("%-14s %-32s %-9s %7s %9s %9s %9s %9s%n",
+                "page", "action", "browser", "count", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (StepSummary s : summaries()) {
+            table.append(String.format("%-14s %-32s %-9s %7d %9.1f %9.1f %9.1f %9.1f%n",
+                    s.page, s.action, s.browser, s.count, s.p50Ms, s.p95Ms, s.p99Ms, s.maxMs));
+        }
+        return table.toString();
+    }
+
+    /**
+     * Each step's p50/p95 per browser, by page and action; empty unless more than one browser ran.
+     */
+    public List<BrowserComparison> browserComparison() {
+        TreeSet<String> browsers = new TreeSet<>();
+        histograms.keySet().forEach(key -> browsers.add(key.browser));
+        if (browsers.size() < 2) {
+            return List.of();
+        }
+        Map<String, BrowserComparison> steps = new TreeMap<>();
+        for (StepSummary s : summaries()) {
+            steps.computeIfAbsent(s.page + "." + s.action, step -> new BrowserComparison(s.page, s.action))
+                    .add(s);
+        }
+        return new ArrayList<>(steps.values());
+    }
+
+    public String browserTable() {
+        List<BrowserComparison> comparison = browserComparison();
+        if (comparison.isEmpty()) {
+            return "";
+        }
+        TreeSet<String> browsers = new TreeSet<>();
+        comparison.forEach(step -> browsers.addAll(step.p95Ms.keySet()));
+        StringBuilder table = new StringBuilder(String.format("%-14s %-32s", "page", "action"));
+        browsers.forEach(browser -> table.append(String.format(" %17s", browser + " p50/p95")));
+        table.append(String.format(" %s%n", "slowest p95"));
+        for (BrowserComparison step : comparison) {
+            table.append(String.format("%-14s %-32s", step.page, step.action));
+            for (String browser : browsers) {
+                Double p50 = step.p50Ms.get(browser);
+                table.append(p50 == null ? String.format(" %17s", "-")
+                        : String.format(Locale.ROOT, " %8.0f/%-8.0f", p50, step.p95Ms.get(browser)));
+            }
+            table.append(' ').append(step.slowest()).append(System.lineSeparator());
+        }
+        return table.toString();
+    }
+
+    public void writeJson(Path path) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("generatedAt", Instant.now().toString());
+        report.put("steps", summaries());
+        List<BrowserComparison> comparison = browserComparison();
+        if (!comparison.isEmpty()) {
+            report.put("browserComparison", comparison);
+        }
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(report, writer);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (histograms.isEmpty()) {
+            return;
+        }
+        System.out.println("[steps] page-object action latency");
+        System.out.print(table());
+        String browsers = browserTable();
+        if (!browsers.isEmpty()) {
+            System.out.println("[steps] per browser, ms");
+            System.out.print(browsers);
+        }
+        writeJson(jsonReport);
+        System.out.println("[steps] written to " + jsonReport.toAbsolutePath());
+    }
+
+    /**
+     * One row of the report; field names are the JSON keys.
+     */
+    public static final class StepSummary {
+        private final String page;
+        private final String action;
+        private final String browser;
+        private final long count;
+        private final double p50Ms;
+        private final double p95Ms;
+        private final double p99Ms;
+        private final double maxMs;
+        private final double meanMs;
+
+        private StepSummary(Key key, Histogram histogram) {
+            this.page = key.page;
+            this.action = key.action;
+            this.browser = key.browser;
+            this.count = histogram.getTotalCount();
+            this.p50Ms = histogram.getValueAtPercentile(50) / 1000.0;
+            this.p95Ms = histogram.getValueAtPercentile(95) / 1000.0;
+            this.p99Ms = histogram.getValueAtPercentile(99) / 1000.0;
+            this.maxMs = histogram.getMaxValue() / 1000.0;
+            this.meanMs = histogram.getMean() / 1000.0;
+        }
+
+        public String getPage() {
+            return page;
+        }
+
+        public String getAction() {
+            return action;
+        }
+
+        public String getBrowser() {
+            return browser;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getP50Ms() {
+            return p50Ms;
+        }
+
+        public double getP95Ms() {
+            return p95Ms;
+        }
+
+        public double getP99Ms() {
+            return p99Ms;
+        }
+
+        public double getMaxMs() {
+            return maxMs;
+        }
+
+        public double getMeanMs() {
+            return meanMs;
+        }
+    }
+
+    /**
+     * One step across browsers; field names are the JSON keys.
+     */
+    public static final class BrowserComparison {
+        private final String page;
+        private final String action;
+        private final Map<String, Double> p50Ms = new TreeMap<>();
+        private final Map<String, Double> p95Ms = new TreeMap<>();
+
+        private BrowserComparison(String page, String action) {
+            this.page = page;
+            this.action = action;
+        }
+
+        private BrowserComparison add(StepSummary summary) {
+            p50Ms.put(summary.browser, summary.p50Ms);
+            p95Ms.put(summary.browser, summary.p95Ms);
+            return this;
+        }
+
+        // "webkit 1.8x": the browser with the highest p95, against the lowest
+        private String slowest() {
+            if (p95Ms.size() < 2) {
+                return "-";
+            }
+            Map.Entry<String, Double> slowest = p95Ms.entrySet().stream().max(Map.Entry.comparingByValue()).get();
+            double fastest = p95Ms.values().stream().mapToDouble(Double::doubleValue).min().getAsDouble();
+            return fastest <= 0 ? slowest.getKey()
+                    : String.format(Locale.ROOT, "%s %.1fx", slowest.getKey(), slowest.getValue() / fastest);
+        }
+
+        public String getPage() {
+            return page;
+        }
+
+        public String getAction() {
+            return action;
+        }
+
+        public Map<String, Double> getP50Ms() {
+            return p50Ms;
+        }
+
+        public Map<String, Double> getP95Ms() {
+            return p95Ms;
+        }
+    }
+
+    private static final class Key {
+        private final String page;
+        private final String action;
+        private final String browser;
+
+        private Key(String page, String action, String browser) {
+            this.page = page;
+            this.action = action;
+            this.browser = browser;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return page.equals(other.page) && action.equals(other.action) && browser.equals(other.browser);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(page, action, browser);
+        }
+    }
+}
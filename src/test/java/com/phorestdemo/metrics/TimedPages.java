@@ -0,0 +1,139 @@
+package com.phorestdemo.metrics;
+
+import com.microsoft.playwright.Page;
+import com.phorestdemo.browser.ConcurrencyController;
+import com.phorestdemo.config.ConfigReader;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.implementation.MethodDelegation;
+import net.bytebuddy.implementation.bind.annotation.FieldValue;
+import net.bytebuddy.implementation.bind.annotation.Origin;
+import net.bytebuddy.implementation.bind.annotation.RuntimeType;
+import net.bytebuddy.implementation.bind.annotation.SuperCall;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static net.bytebuddy.matcher.ElementMatchers.isDeclaredBy;
+import static net.bytebuddy.matcher.ElementMatchers.isPublic;
+import static net.bytebuddy.matcher.ElementMatchers.isStatic;
+import static net.bytebuddy.matcher.ElementMatchers.not;
+
+/**
+ * Creates page objects whose public methods are timed into {@link StepTimings}
+ * without any stopwatch code in the page classes themselves. Methods marked
+ * {@link PerfStep} also have the browser's own timings read by {@link PagePerformance}.
+ *
+ * Each page class gets a generated subclass (once per JVM) that wraps every public
+ * instance method it declares. Page classes only need to be non-final and keep
+ * their public (Page, String url) constructor. Only the outermost call on a thread is
+ * recorded: public methods that a step calls (e.g. fill calling fillFirstName) are part
+ * of that step, not steps of their own.
+ */
+public final class TimedPages {
+
+    private static final String BROWSER_FIELD = "timedPagesBrowserType";
+    private static final String PAGE_FIELD = "timedPagesPage";
+
+    private static final Map<Class<?>, Class<?>> SUBCLASSES = new ConcurrentHashMap<>();
+
+    private TimedPages() {
+    }
+
+    public static <T> T create(Class<T> type, Page page, String url) {
+        try {
+            Class<? extends T> subclass = subclassOf(type);
+            T instance = subclass.getConstructor(Page.class, String.class).newInstance(page, url);
+            subclass.getField(BROWSER_FIELD).set(instance, browserTypeOf(page));
+            subclass.getField(PAGE_FIELD).set(instance, page);
+            return instance;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create timed " + type.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Plain, untimed instance - same constructor contract as {@link #create}.
+     */
+    public static <T> T createUntimed(Class<T> type, Page page, String url) {
+        try {
+            Constructor<T> constructor = type.getConstructor(Page.class, String.class);
+            return constructor.newInstance(page, url);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create " + type.getSimpleName(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Class<? extends T> subclassOf(Class<T> type) {
+        return (Class<? extends T>) SUBCLASSES.computeIfAbsent(type, t -> new ByteBuddy()
+                .subclass(t)
+                .defineField(BROWSER_FIELD, String.class, Visibility.PUBLIC)
+                .defineField(PAGE_FIELD, Page.class, Visibility.PUBLIC)
+                .method(isPublic().and(not(isStatic())).and(isDeclaredBy(t)))
+                .intercept(MethodDelegation.to(StepInterceptor.class))
+                .make()
+                .load(t.getClassLoader(), ClassLoadingStrategy.Default.WRAPPER)
+                .getLoaded());
+    }
+
+    static String browserTypeOf(Page page) {
+        try {
+            return page.context().browser().browserType().name();
+        } catch (RuntimeException e) {
+            // Persistent contexts have no Browser
+            return "unknown";
+        }
+    }
+
+    public static final class StepInterceptor {
+
+        private static final boolean STEP_TIMINGS = ConfigReader.isStepTimingEnabled();
+        private static final boolean PERF_TIMINGS = ConfigReader.isPerfTimingsEnabled();
+        private static final boolean ADAPTIVE_CONCURRENCY = ConfigReader.isAdaptiveConcurrencyEnabled();
+        // Page-object calls in progress on this thread
+        private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+        private StepInterceptor() {
+        }
+
+        @RuntimeType
+        public static Object intercept(@SuperCall Callable<?> action,
+                                       @Origin Method method,
+                                       @FieldValue(BROWSER_FIELD) String browserType,
+                                       @FieldValue(PAGE_FIELD) Page page) throws Exception {
+            String browser = browserType != null ? browserType : "unknown";
+            int[] depth = DEPTH.get();
+            boolean outermost = depth[0]++ == 0;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = action.call();
+            } finally {
+                depth[0]--;
+                long elapsed = System.nanoTime() - start;
+                if (STEP_TIMINGS && outermost) {
+                    StepTimings.shared().record(
+                            method.getDeclaringClass().getSimpleName(),
+                            method.getName(),
+                            browser,
+                            elapsed);
+                }
+                if (ADAPTIVE_CONCURRENCY && outermost) {
+                    ConcurrencyController.shared().recordStep(elapsed);
+                }
+            }
+            // Only after a step that worked; a failed one leaves nothing worth measuring
+            if (PERF_TIMINGS && page != null && method.isAnnotationPresent(PerfStep.class)) {
+                PagePerformance.shared().sample(page,
+                        method.getDeclaringClass().getSimpleName() + "." + method.getName(),
+                        browser, System.nanoTime() - start);
+            }
+            return result;
+        }
+    }
+}
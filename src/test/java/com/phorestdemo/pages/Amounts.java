@@ -0,0 +1,18 @@
+package com.phorestdemo.pages;
+
+/**
+ * Currency text as the tests compare it: "€150.00" -> "150".
+ */
+final class Amounts {
+
+    private Amounts() {
+    }
+
+    static String wholeAmount(String text) {
+        if (text == null) {
+            return null;
+        }
+        String value = text.trim().replaceAll("[^0-9.]", "");
+        return String.valueOf((int) Double.parseDouble(value));
+    }
+}
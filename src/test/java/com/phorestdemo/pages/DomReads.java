@@ -0,0 +1,39 @@
+package com.phorestdemo.pages;
+
+import com.microsoft.playwright.Locator;
+
+import java.util.Map;
+
+/**
+ * Reads several elements' text and input values with a single evaluate call,
+ * instead of one driver round trip per textContent()/inputValue().
+ */
+final class DomReads {
+
+    private static final String READ_ALL = "(anchor, { texts, values }) => {"
+            + "  const result = {};"
+            + "  const read = (selectors, property) => {"
+            + "    for (const [key, selector] of Object.entries(selectors)) {"
+            + "      const element = document.querySelector(selector);"
+            + "      const raw = element ? element[property] : null;"
+            + "      result[key] = raw == null ? null : raw.trim();"
+            + "    }"
+            + "  };"
+            + "  read(texts, 'textContent');"
+            + "  read(values, 'value');"
+            + "  return result;"
+            + "}";
+
+    private DomReads() {
+    }
+
+    /**
+     * Waits for the anchor like any locator action, then reads every selector in the same call:
+     * textContent for texts, the input value for values, keyed as given and trimmed.
+     * Selectors must be plain CSS; missing elements read as null.
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, String> read(Locator anchor, Map<String, String> texts, Map<String, String> values) {
+        return (Map<String, String>) anchor.first().evaluate(READ_ALL, Map.of("texts", texts, "values", values));
+    }
+}
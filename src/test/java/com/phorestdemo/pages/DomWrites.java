@@ -0,0 +1,53 @@
+package com.phorestdemo.pages;
+
+import com.microsoft.playwright.Locator;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Clicks and fills several elements with a single evaluate call, the write-side counterpart
+ * of {@link DomReads}.
+ */
+final class DomWrites {
+
+    private static final String WRITE_ALL = "(anchor, { clicks, values }) => {"
+            + "  const missing = [];"
+            + "  const find = (selector) => {"
+            + "    const element = document.querySelector(selector);"
+            + "    if (!element) missing.push(selector);"
+            + "    return element;"
+            + "  };"
+            + "  for (const selector of clicks) {"
+            + "    const element = find(selector);"
+            + "    if (element) element.click();"
+            + "  }"
+            + "  for (const [selector, value] of Object.entries(values)) {"
+            + "    const element = find(selector);"
+            + "    if (!element) continue;"
+            + "    element.value = value;"
+            + "    element.dispatchEvent(new Event('input', { bubbles: true }));"
+            + "    element.dispatchEvent(new Event('change', { bubbles: true }));"
+            + "  }"
+            + "  return missing;"
+            + "}";
+
+    private DomWrites() {
+    }
+
+    /**
+     * Waits for the anchor like any locator action, then clicks each of clicks in order and sets
+     * each of values (in map order), firing input and change events so the page's own handlers
+     * see the same thing as after fill(). Selectors must be plain CSS.
+     *
+     * @throws IllegalStateException if any selector matched nothing; the others are still applied
+     */
+    @SuppressWarnings("unchecked")
+    static void write(Locator anchor, List<String> clicks, Map<String, String> values) {
+        List<String> missing = (List<String>) anchor.first().evaluate(WRITE_ALL,
+                Map.of("clicks", clicks, "values", values));
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Nothing on the page matches " + missing);
+        }
+    }
+}
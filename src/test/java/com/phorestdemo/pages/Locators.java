@@ -0,0 +1,107 @@
+package com.phorestdemo.pages;
+
+import com.microsoft.playwright.Locator;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.PlaywrightException;
+import com.microsoft.playwright.options.WaitForSelectorState;
+import com.phorestdemo.waits.AdaptiveWaits;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Locators bound to one Page, created on first use and reused by every page object on that page.
+ *
+ * A page (and so its cache) belongs to a single test thread. The cache is dropped when the page
+ * closes, on its own or with its context; it can't be weakly keyed, since its locators hold the Page.
+ */
+final class Locators {
+
+    private static final Map<Page, Locators> BY_PAGE = new ConcurrentHashMap<>();
+
+    // Page-object classes whose CSS selectors have already been checked in a browser
+    private static final Set<Class<?>> VALIDATED = ConcurrentHashMap.newKeySet();
+
+    private static final String FIND_INVALID = "selectors => {"
+            + "  const invalid = {};"
+            + "  for (const [id, css] of Object.entries(selectors)) {"
+            + "    try { document.querySelector(css); } catch (e) { invalid[id] = e.message; }"
+            + "  }"
+            + "  return invalid;"
+            + "}";
+
+    private final Page page;
+    private final Map<Selector, Locator> bound = new HashMap<>();
+
+    private Locators(Page page) {
+        this.page = page;
+    }
+
+    /**
+     * The cache for this page. The first call for each page-object class also checks that class's
+     * CSS selectors parse in the browser, failing fast with every bad selector listed.
+     */
+    static Locators of(Page page, Class<?> pageObject) {
+        if (VALIDATED.add(pageObject)) {
+            validate(page, pageObject);
+        }
+        return BY_PAGE.computeIfAbsent(page, Locators::create);
+    }
+
+    private static Locators create(Page page) {
+        page.onClose(BY_PAGE::remove);
+        return new Locators(page);
+    }
+
+    Locator get(Selector selector) {
+        selector.countLookup();
+        return bound.computeIfAbsent(selector, s -> s.bind(page));
+    }
+
+    Locator get(SelectorTemplate template, String argument) {
+        return get(template.with(argument));
+    }
+
+    /**
+     * Waits for the selector to be visible, with a timeout learned from earlier runs (see AdaptiveWaits).
+     */
+    Locator waitVisible(Selector selector) {
+        Locator locator = get(selector);
+        AdaptiveWaits.shared().waitFor(locator, WaitForSelectorState.VISIBLE, selector.getId());
+        return locator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void validate(Page page, Class<?> pageObject) {
+        Map<String, String> css = new HashMap<>();
+        for (Selector selector : Selector.declaredBy(pageObject)) {
+            if (selector.getCss() != null) {
+                css.put(selector.getId(), selector.getCss());
+            }
+        }
+        if (css.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> invalid;
+        try {
+            invalid = (Map<String, String>) page.evaluate(FIND_INVALID, css);
+        } catch (PlaywrightException e) {
+            // Not fatal - a bad selector will still fail on first use
+            System.err.println("Could not check selectors of " + pageObject.getSimpleName() + ": " + e.getMessage());
+            return;
+        }
+        if (!invalid.isEmpty()) {
+            List<String> problems = new ArrayList<>();
+            invalid.forEach((id, message) -> problems.add(id + " '" + css.get(id) + "': " + message));
+            Collections.sort(problems);
+            VALIDATED.remove(pageObject);
+            throw new IllegalStateException("Invalid selectors in " + pageObject.getSimpleName() + ": " + problems);
+        }
+    }
+}
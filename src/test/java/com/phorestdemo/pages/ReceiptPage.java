@@ -4,23 +4,24 @@ import com.microsoft.playwright.Locator;
 import com.microsoft.playwright.Page;
 
 public class ReceiptPage {
-    private final Page page;
-    private static final String VOUCHER_CODE_SELECTOR = "p[data-target='stripe-serial.serialSpan']";
-    private static final String DONE_BUTTON = "button[data-action='application#doneAction']";
+    private final Locators locators;
+    private static final Selector VOUCHER_CODE_SELECTOR =
+            Selector.css(ReceiptPage.class, "voucherCode", "p[data-target='stripe-serial.serialSpan']");
+    private static final Selector DONE_BUTTON =
+            Selector.css(ReceiptPage.class, "doneButton", "button[data-action='application#doneAction']");
 
 
     public ReceiptPage(Page page, String url) {
-        this.page = page;
+        this.locators = Locators.of(page, ReceiptPage.class);
     }
 
     public String getVoucherCode() {
-        Locator voucherLocator = page.locator(VOUCHER_CODE_SELECTOR);
-        voucherLocator.waitFor(); // Wait until visible
+        Locator voucherLocator = locators.waitVisible(VOUCHER_CODE_SELECTOR);
         return voucherLocator.textContent().trim();
     }
 
     public Locator getDoneButton() {
-        return page.locator(DONE_BUTTON);
+        return locators.get(DONE_BUTTON);
     }
 
     public void clickDoneButton() {
@@ -0,0 +1,132 @@
+package com.phorestdemo.pages;
+
+import com.microsoft.playwright.Locator;
+import com.microsoft.playwright.Page;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A page-object selector, declared once as a static field and bound to a Locator once per
+ * Page by {@link Locators}.
+ *
+ * Every selector is kept in a registry by owner and name, so CSS selectors can be checked
+ * against a real browser the first time their page object is used, and so the run can report
+ * how often each one was looked up versus actually bound.
+ */
+public final class Selector {
+
+    private static final Map<String, Selector> REGISTRY = new ConcurrentHashMap<>();
+
+    private final Class<?> owner;
+    private final String name;
+    private final String css;
+    private final Function<Page, Locator> binder;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder bindings = new LongAdder();
+
+    private Selector(Class<?> owner, String name, String css, Function<Page, Locator> binder) {
+        this.owner = owner;
+        this.name = name;
+        this.css = css;
+        this.binder = binder;
+    }
+
+    /**
+     * Plain CSS, checked in the browser when the owning page object is first created.
+     */
+    public static Selector css(Class<?> owner, String name, String css) {
+        return register(new Selector(owner, name, requireText(css), page -> page.locator(css)));
+    }
+
+    /**
+     * Plain CSS, bound to the first match only.
+     */
+    public static Selector first(Class<?> owner, String name, String css) {
+        return register(new Selector(owner, name, requireText(css), page -> page.locator(css).first()));
+    }
+
+    /**
+     * Role, frame or other Playwright-only locators; not checked up front.
+     */
+    public static Selector custom(Class<?> owner, String name, Function<Page, Locator> binder) {
+        return register(new Selector(owner, name, null, binder));
+    }
+
+    private static Selector register(Selector selector) {
+        Selector existing = REGISTRY.putIfAbsent(selector.getId(), selector);
+        if (existing != null) {
+            throw new IllegalStateException("Selector " + selector.getId() + " is declared twice");
+        }
+        return selector;
+    }
+
+    private static String requireText(String css) {
+        if (css == null || css.isBlank()) {
+            throw new IllegalArgumentException("Selector must not be blank");
+        }
+        return css;
+    }
+
+    public String getId() {
+        return owner.getSimpleName() + "." + name;
+    }
+
+    public Class<?> getOwner() {
+        return owner;
+    }
+
+    /**
+     * The CSS, or null for custom selectors.
+     */
+    public String getCss() {
+        return css;
+    }
+
+    Locator bind(Page page) {
+        bindings.increment();
+        return binder.apply(page);
+    }
+
+    void countLookup() {
+        lookups.increment();
+    }
+
+    static List<Selector> declaredBy(Class<?> owner) {
+        List<Selector> selectors = new ArrayList<>();
+        for (Selector selector : REGISTRY.values()) {
+            if (selector.owner == owner) {
+                selectors.add(selector);
+            }
+        }
+        return selectors;
+    }
+
+    /**
+     * Lookups (calls from page objects) against bindings (Locators actually created) per selector,
+     * busiest first.
+     */
+    public static String statsTable() {
+        List<Selector> selectors = new ArrayList<>(REGISTRY.values());
+        selectors.sort(Comparator.comparingLong((Selector s) -> s.lookups.sum()).reversed()
+                .thenComparing(Selector::getId));
+        StringBuilder table = new StringBuilder(String.format("%-40s %9s %9s%n", "selector", "lookups", "bound"));
+        for (Selector selector : selectors) {
+            if (selector.lookups.sum() > 0) {
+                table.append(String.format("%-40s %9d %9d%n",
+                        selector.getId(), selector.lookups.sum(), selector.bindings.sum()));
+            }
+        }
+        return table.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getId() + (css != null ? " (" + css + ")" : "");
+    }
+}
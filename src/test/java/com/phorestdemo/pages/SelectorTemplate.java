@@ -0,0 +1,45 @@
+package com.phorestdemo.pages;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * A CSS selector with one parameter, e.g. the radio for a voucher amount.
+ * Each distinct argument is formatted and registered as a {@link Selector} once,
+ * so repeated lookups don't rebuild the selector string.
+ */
+public final class SelectorTemplate {
+
+    private final Class<?> owner;
+    private final String name;
+    private final String pattern;
+    private final UnaryOperator<String> formatArgument;
+    private final Map<String, Selector> bound = new ConcurrentHashMap<>();
+
+    /**
+     * @param pattern        CSS with a single %s
+     * @param formatArgument turns the caller's argument into the value placed in the pattern
+     */
+    public SelectorTemplate(Class<?> owner, String name, String pattern, UnaryOperator<String> formatArgument) {
+        this.owner = owner;
+        this.name = name;
+        this.pattern = pattern;
+        this.formatArgument = formatArgument;
+    }
+
+    public Selector with(String argument) {
+        return bound.computeIfAbsent(argument, arg -> Selector.css(owner, name + "[" + arg + "]",
+                String.format(pattern, formatArgument.apply(arg))));
+    }
+
+    /**
+     * Binds the arguments that are known up front, so they're checked with the rest
+     * of the owner's selectors.
+     */
+    public SelectorTemplate prepare(Collection<String> arguments) {
+        arguments.forEach(this::with);
+        return this;
+    }
+}
@@ -1,65 +1,96 @@
 package com.phorestdemo.pages;
 
+import com.microsoft.playwright.Frame;
 import com.microsoft.playwright.FrameLocator;
 import com.microsoft.playwright.Locator;
 import com.microsoft.playwright.Page;
 import com.microsoft.playwright.options.AriaRole;
+import com.phorestdemo.metrics.PerfStep;
+import com.phorestdemo.payment.IframePayment;
+import com.phorestdemo.payment.PaymentStrategy;
+
+import java.util.Map;
 
 public class SummaryPage {
-    private final Page page;
+    private final Locators locators;
+    private final PaymentStrategy payment = PaymentStrategy.fromConfig();
 
     // Confirmation selectors
-    private static final String CONFIRM_VOUCHER_VALUE_TEXT = "p#confirm-voucher-value";
-    private static final String CONFIRM_TOTAL_COST_VALUE = "p#confirm-total-amount";
-    private static final String SENDER_EMAIL = "p#confirm-purchaser-email";
-    private static final String RECIPIENT_EMAIL = "p#confirm-recipient-email";
-    private static final String CONFIRM_DETAILS_BUTTON = "button[data-action='confirm#confirmAction']";
+    private static final Selector CONFIRM_VOUCHER_VALUE_TEXT = css("confirmVoucherValue", "p#confirm-voucher-value");
+    private static final Selector CONFIRM_TOTAL_COST_VALUE = css("confirmTotalCost", "p#confirm-total-amount");
+    private static final Selector SENDER_EMAIL = css("senderEmail", "p#confirm-purchaser-email");
+    private static final Selector RECIPIENT_EMAIL = css("recipientEmail", "p#confirm-recipient-email");
+    private static final Selector CONFIRM_DETAILS_BUTTON = css("confirmDetailsButton", "button[data-action='confirm#confirmAction']");
     private static final String STRIPE_CARD_IFRAME = "iframe[src*='elements-inner-card']";
-    private static final String PAY_BUTTON = "button[data-action='stripe-purchase#confirmPayment']";
-    private static final String EDIT_BUTTON = "button[data-action='click->confirm#editAction']";
+    private static final Selector PAY_BUTTON = css("payButton", "button[data-action='stripe-purchase#confirmPayment']");
+    private static final Selector EDIT_BUTTON = css("editButton", "button[data-action='click->confirm#editAction']");
+
+    // Stripe card fields, inside the card iframe
+    private static final Selector CARD_IFRAME = css("cardIframe", STRIPE_CARD_IFRAME);
+    private static final Selector CARD_NUMBER = cardField("cardNumber", IframePayment.CARD_NUMBER_LABEL);
+    private static final Selector CARD_EXPIRY = cardField("cardExpiry", IframePayment.CARD_EXPIRY_LABEL);
+    private static final Selector CARD_CVC = cardField("cardCvc", IframePayment.CARD_CVC_LABEL);
 
     public SummaryPage(Page page, String url) {
-        this.page = page;
+        this.locators = Locators.of(page, SummaryPage.class);
+    }
+
+    private static Selector css(String name, String css) {
+        return Selector.css(SummaryPage.class, name, css);
     }
 
-    private FrameLocator getCardFrame() {
-        return page.frameLocator(STRIPE_CARD_IFRAME);
+    private static Selector cardField(String name, String label) {
+        return Selector.custom(SummaryPage.class, name, page -> page.frameLocator(STRIPE_CARD_IFRAME)
+                .getByRole(AriaRole.TEXTBOX, new FrameLocator.GetByRoleOptions().setName(label)));
     }
 
     public String getSenderEmailText() {
-        return page.locator(SENDER_EMAIL).textContent().trim();
+        return locators.get(SENDER_EMAIL).textContent().trim();
     }
 
     public String getRecipientEmailText() {
-        return page.locator(RECIPIENT_EMAIL).textContent().trim();
+        return locators.get(RECIPIENT_EMAIL).textContent().trim();
     }
 
     public String getConfirmVoucherValue() {
-        String value = page.locator(CONFIRM_VOUCHER_VALUE_TEXT).textContent().trim();
-        value = value.replaceAll("[^0-9.]", "");
-        double number = Double.parseDouble(value);
-        return String.valueOf((int) number);
+        return Amounts.wholeAmount(locators.get(CONFIRM_VOUCHER_VALUE_TEXT).textContent());
     }
 
     public String getConfirmTotalCost() {
-        String value = page.locator(CONFIRM_TOTAL_COST_VALUE).textContent().trim();
-        value = value.replaceAll("[^0-9.]", "");
-        double number = Double.parseDouble(value);
-        return String.valueOf((int) number);
+        return Amounts.wholeAmount(locators.get(CONFIRM_TOTAL_COST_VALUE).textContent());
+    }
+
+    /**
+     * All confirmation fields in one round trip, once the total is on the page.
+     * Prefer this over the single getters when asserting on more than one field.
+     */
+    public SummarySnapshot snapshot() {
+        Map<String, String> fields = DomReads.read(locators.get(CONFIRM_TOTAL_COST_VALUE),
+                Map.of("voucherValue", CONFIRM_VOUCHER_VALUE_TEXT.getCss(),
+                        "totalCost", CONFIRM_TOTAL_COST_VALUE.getCss(),
+                        "senderEmail", SENDER_EMAIL.getCss(),
+                        "recipientEmail", RECIPIENT_EMAIL.getCss()),
+                Map.of());
+        return new SummarySnapshot(
+                Amounts.wholeAmount(fields.get("voucherValue")),
+                Amounts.wholeAmount(fields.get("totalCost")),
+                fields.get("senderEmail"),
+                fields.get("recipientEmail"));
     }
 
     public Locator getConfirmDetailsButton() {
-        return page.locator(CONFIRM_DETAILS_BUTTON);
+        return locators.get(CONFIRM_DETAILS_BUTTON);
     }
 
     public Locator getPayButton() {
-        return page.locator(PAY_BUTTON);
+        return locators.get(PAY_BUTTON);
     }
 
     public Locator getEditButton() {
-        return page.locator(EDIT_BUTTON);
+        return locators.get(EDIT_BUTTON);
     }
 
+    @PerfStep
     public void clickConfirmDetailsButton() {
         getConfirmDetailsButton().click();
     }
@@ -69,33 +100,27 @@ public class SummaryPage {
     }
 
     public void enterCardNumber(String cardNumber) {
-        getCardFrame().getByRole(AriaRole.TEXTBOX,
-                new FrameLocator.GetByRoleOptions()
-                        .setName("Credit or debit card number"))
-                .fill(cardNumber);
+        locators.get(CARD_NUMBER).fill(cardNumber);
     }
 
     public void enterExpiry(String expiry) {
-        getCardFrame().getByRole(AriaRole.TEXTBOX,
-                new FrameLocator.GetByRoleOptions()
-                        .setName("Credit or debit card expiration date"))
-                .fill(expiry);
+        locators.get(CARD_EXPIRY).fill(expiry);
     }
 
     public void enterCVC(String cvc) {
-        getCardFrame().getByRole(AriaRole.TEXTBOX,
-                new FrameLocator.GetByRoleOptions()
-                        .setName("Credit or debit card CVC/CVV"))
-                .fill(cvc);
+        locators.get(CARD_CVC).fill(cvc);
     }
 
-    // Convenience method: fill all payment fields in correct order
+    /**
+     * Fills all payment fields with the configured {@link PaymentStrategy} (payment in config.properties).
+     * The card iframe is resolved once, and every field is then filled inside it.
+     */
     public void enterPaymentDetails(String cardNumber, String expiry, String cvc) {
-        enterCardNumber(cardNumber); // MUST be first
-        enterExpiry(expiry); // now iframe exists
-        enterCVC(cvc); // now iframe exists
+        Frame cardFrame = locators.get(CARD_IFRAME).elementHandle().contentFrame();
+        payment.enterCard(cardFrame, cardNumber, expiry, cvc);
     }
 
+    @PerfStep
     public void clickPayButton() {
         getPayButton().click();
     }
@@ -0,0 +1,13 @@
+package com.phorestdemo.pages;
+
+/**
+ * The confirmation screen as read by {@link SummaryPage#snapshot()} in one round trip.
+ * Amounts are whole numbers without the currency ("150"); text is trimmed.
+ * A field is null if its element wasn't on the page.
+ */
+public record SummarySnapshot(
+        String voucherValue,
+        String totalCost,
+        String senderEmail,
+        String recipientEmail) {
+}
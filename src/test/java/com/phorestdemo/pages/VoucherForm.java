@@ -0,0 +1,18 @@
+package com.phorestdemo.pages;
+
+/**
+ * What a buyer enters on the voucher screen, for {@link VoucherPage#fill(VoucherForm)} and
+ * {@link VoucherPage#seed(VoucherForm)}. The amount option is a preset such as "150" or "Other",
+ * with the custom amount only set for "Other". Recipient email and message are ignored when
+ * sending to me.
+ */
+public record VoucherForm(
+        String amountOption,
+        String customAmount,
+        boolean sendToMe,
+        String purchaserEmail,
+        String firstName,
+        String lastName,
+        String recipientEmail,
+        String message) {
+}
@@ -0,0 +1,16 @@
+package com.phorestdemo.pages;
+
+/**
+ * The voucher form as read by {@link VoucherPage#snapshot()} in one round trip.
+ * Amounts are whole numbers without the currency ("150"); text is trimmed.
+ * A field is null if its element wasn't on the page.
+ */
+public record VoucherFormSnapshot(
+        String totalCost,
+        String voucherIconAmount,
+        String purchaserEmail,
+        String recipientEmail,
+        String firstName,
+        String lastName,
+        String message) {
+}
@@ -4,91 +4,115 @@ import com.microsoft.playwright.Page;
 import com.microsoft.playwright.Locator;
 import com.microsoft.playwright.options.AriaRole;
 import com.microsoft.playwright.options.LoadState;
-import com.microsoft.playwright.options.WaitForSelectorState;
+import com.phorestdemo.config.ConfigReader;
+import com.phorestdemo.metrics.PerfStep;
 
 import java.text.DecimalFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class VoucherPage {
 
     private final Page page;
-
-    private static final String OTHER_VOUCHER_SELECTOR_INPUT_BOX = "input[data-target='amount.otherInput']";
-    private static final String VOUCHER_ICON_AMOUNT = "text#voucher-value-text";
-    private static final String TOTAL_COST_SPAN = "span[data-target='checkout.totalCost']";
-    private static final String CHECK_OUT_BUTTON = "button[data-target='checkout.checkoutButton']";
-    private static final String SEND_TO_ME_TAB = "a[data-action='tabs#showSendToMe'][data-target='tabs.sendToMyselfTab']";
-    private static final String PURCHASER_EMAIL_INPUT_BOX = "input[data-target='email.purchaserEmailInput']";
-    private static final String RECIPIENT_EMAIL_INPUT_BOX = "input[data-target='email.recipientEmailInput']";
-    private static final String MESSAGE_FOR_RECIPIENT_INPUT_BOX = "textarea[data-target='email.recipientMessageInput']";
-    private static final String FIRST_NAME_INPUT_BOX = "input[data-target='name.purchaserFirstNameInput']";
-    private static final String LAST_NAME_INPUT_BOX = "input[data-target='name.purchaserLastNameInput']";
+    private final String url;
+    private final Locators locators;
+
+    private static final Selector OTHER_VOUCHER_SELECTOR_INPUT_BOX = css("otherInputBox", "input[data-target='amount.otherInput']");
+    private static final Selector VOUCHER_ICON_AMOUNT = css("voucherIconAmount", "text#voucher-value-text");
+    private static final Selector TOTAL_COST_SPAN = Selector.first(VoucherPage.class, "totalCost", "span[data-target='checkout.totalCost']");
+    private static final Selector CHECK_OUT_BUTTON = Selector.first(VoucherPage.class, "checkoutButton", "button[data-target='checkout.checkoutButton']");
+    private static final Selector SEND_TO_ME_TAB = css("sendToMeTab", "a[data-action='tabs#showSendToMe'][data-target='tabs.sendToMyselfTab']");
+    private static final Selector SEND_TO_OTHER_TAB = Selector.custom(VoucherPage.class, "sendToOtherTab",
+            page -> page.getByRole(AriaRole.LINK, new Page.GetByRoleOptions().setName("Send to someone else")));
+    private static final Selector PURCHASER_EMAIL_INPUT_BOX = css("purchaserEmail", "input[data-target='email.purchaserEmailInput']");
+    private static final Selector RECIPIENT_EMAIL_INPUT_BOX = css("recipientEmail", "input[data-target='email.recipientEmailInput']");
+    private static final Selector MESSAGE_FOR_RECIPIENT_INPUT_BOX = css("message", "textarea[data-target='email.recipientMessageInput']");
+    private static final Selector FIRST_NAME_INPUT_BOX = css("firstName", "input[data-target='name.purchaserFirstNameInput']");
+    private static final Selector LAST_NAME_INPUT_BOX = css("lastName", "input[data-target='name.purchaserLastNameInput']");
+
+    // Gift amount radios
+    private static final Selector ANY_RADIO = Selector.first(VoucherPage.class, "anyRadio", "input[type='radio']");
+    private static final Selector OTHER_RADIO = css("otherRadio", "input#optionOther");
+    // OR: input[data-target='amount.otherOptionButton']
+    private static final SelectorTemplate PRESET_RADIO = new SelectorTemplate(VoucherPage.class, "presetRadio",
+            "input[type='radio'][data-voucher-value='%s']", VoucherPage::formatAmount)
+            .prepare(ConfigReader.getScenarioPresetAmounts());
 
     public VoucherPage(Page page, String url) {
         this.page = page;
+        this.url = url;
+        this.locators = Locators.of(page, VoucherPage.class);
+    }
+
+    private static Selector css(String name, String css) {
+        return Selector.css(VoucherPage.class, name, css);
     }
 
+    // data-voucher-value holds two decimals, e.g. "150.00"
+    private static String formatAmount(String amount) {
+        return new DecimalFormat("0.00").format(Double.parseDouble(amount));
+    }
+
+    @PerfStep
     public void navigate() {
-        page.navigate("https://gift-cards.phorest.com/salons/demo#");
+        page.navigate(url);
         page.waitForLoadState(LoadState.DOMCONTENTLOADED);
 
         // Wait until at least one radio is visible
-        page.waitForSelector("input[type='radio']", new Page.WaitForSelectorOptions()
-                .setState(WaitForSelectorState.VISIBLE)
-                .setTimeout(30_000));
+        locators.waitVisible(ANY_RADIO);
     }
 
     private Locator getCheckoutButton() {
-        return page.locator(CHECK_OUT_BUTTON);
+        return locators.get(CHECK_OUT_BUTTON);
     }
 
     private Locator getSendToMeTab() {
-        return page.locator(SEND_TO_ME_TAB);
+        return locators.get(SEND_TO_ME_TAB);
     }
 
     private Locator getPurchaserEmailInputBox() {
-        return page.locator(PURCHASER_EMAIL_INPUT_BOX);
+        return locators.get(PURCHASER_EMAIL_INPUT_BOX);
     }
 
     private Locator getRecipientEmailInputBox() {
-        return page.locator(RECIPIENT_EMAIL_INPUT_BOX);
+        return locators.get(RECIPIENT_EMAIL_INPUT_BOX);
     }
 
     private Locator getFirstNameInputBox() {
-        return page.locator(FIRST_NAME_INPUT_BOX);
+        return locators.get(FIRST_NAME_INPUT_BOX);
     }
 
     private Locator getLastNameInputBox() {
-        return page.locator(LAST_NAME_INPUT_BOX);
+        return locators.get(LAST_NAME_INPUT_BOX);
     }
 
     private Locator getMessageForRecipientInputBox() {
-        return page.locator(MESSAGE_FOR_RECIPIENT_INPUT_BOX);
+        return locators.get(MESSAGE_FOR_RECIPIENT_INPUT_BOX);
     }
 
     private Locator getOtherInputBox() {
-        return page.locator(OTHER_VOUCHER_SELECTOR_INPUT_BOX);
+        return locators.get(OTHER_VOUCHER_SELECTOR_INPUT_BOX);
     }
 
     private Locator getVoucherAmountText() {
-        return page.locator(VOUCHER_ICON_AMOUNT);
+        return locators.get(VOUCHER_ICON_AMOUNT);
     }
 
     /**
-     * Returns the Locator for a gift voucher radio button.
+     * Returns the Selector for a gift voucher radio button.
      * Uses data-voucher-value attribute for preset amounts.
      * Uses a special selector for "Other".
      */
-    private Locator getGiftVoucherRadioButton(String amount) {
+    private Selector getGiftVoucherRadioSelector(String amount) {
         if (amount.equalsIgnoreCase("Other")) {
             // Use the actual HTML for the "Other" radio
-            return page.locator("input#optionOther");
-            // OR: return page.locator("input[data-target='amount.otherOptionButton']");
+            return OTHER_RADIO;
         } else {
             // Preset amounts use data-voucher-value
-            String formattedAmount = new DecimalFormat("0.00").format(Double.parseDouble(amount));
-            return page.locator("input[type='radio'][data-voucher-value='" + formattedAmount + "']");
+            return PRESET_RADIO.with(amount);
         }
     }
 
@@ -97,18 +121,10 @@ public class VoucherPage {
      */
     public void selectGiftAmount(String amount, String customAmountIfOther) {
         // Wait until all radios are rendered (CI safety)
-        page.waitForSelector(
-                "input[type='radio']",
-                new Page.WaitForSelectorOptions()
-                        .setState(WaitForSelectorState.VISIBLE)
-                        .setTimeout(30_000));
-
-        Locator radio = getGiftVoucherRadioButton(amount);
+        locators.waitVisible(ANY_RADIO);
 
         // Wait for this specific radio to be visible
-        radio.waitFor(new Locator.WaitForOptions()
-                .setState(WaitForSelectorState.VISIBLE)
-                .setTimeout(30_000));
+        Locator radio = locators.waitVisible(getGiftVoucherRadioSelector(amount));
 
         radio.check();
 
@@ -123,12 +139,61 @@ public class VoucherPage {
             }
 
             // Wait for the "Other" input box
-            getOtherInputBox().waitFor(new Locator.WaitForOptions()
-                    .setState(WaitForSelectorState.VISIBLE)
-                    .setTimeout(30_000));
+            locators.waitVisible(OTHER_VOUCHER_SELECTOR_INPUT_BOX).fill(customAmountIfOther);
+        }
+    }
 
-            getOtherInputBox().fill(customAmountIfOther);
+    /**
+     * Fills the whole form in two round trips (the tab click, then one evaluate that picks the
+     * amount and sets every field) instead of one per step. For flows whose subject is a later
+     * screen; tests of the form itself should use the single steps. Check the result with
+     * {@link #snapshot()}, which reads what the page made of the seeded values.
+     */
+    public void seed(VoucherForm form) {
+        locators.waitVisible(ANY_RADIO);
+        // The tab is a real click: its link has no CSS hook common to every storefront
+        locators.get(form.sendToMe() ? SEND_TO_ME_TAB : SEND_TO_OTHER_TAB).click();
+
+        Map<String, String> values = new LinkedHashMap<>();
+        if (form.amountOption().equalsIgnoreCase("Other")) {
+            if (form.customAmount() == null) {
+                throw new IllegalArgumentException(
+                        "Custom amount must be provided when selecting 'Other'.");
+            }
+            // After the radio click, which is what shows the input
+            values.put(OTHER_VOUCHER_SELECTOR_INPUT_BOX.getCss(), form.customAmount());
         }
+        values.put(PURCHASER_EMAIL_INPUT_BOX.getCss(), form.purchaserEmail());
+        values.put(FIRST_NAME_INPUT_BOX.getCss(), form.firstName());
+        values.put(LAST_NAME_INPUT_BOX.getCss(), form.lastName());
+        if (!form.sendToMe()) {
+            values.put(RECIPIENT_EMAIL_INPUT_BOX.getCss(), form.recipientEmail());
+            values.put(MESSAGE_FOR_RECIPIENT_INPUT_BOX.getCss(), form.message());
+        }
+        DomWrites.write(locators.get(ANY_RADIO),
+                List.of(getGiftVoucherRadioSelector(form.amountOption()).getCss()), values);
+    }
+
+    /**
+     * Fills the whole form: with {@link #seed} when fastForward is on, otherwise one step at a
+     * time as a buyer would.
+     */
+    public void fill(VoucherForm form) {
+        if (ConfigReader.isFastForwardEnabled()) {
+            seed(form);
+            return;
+        }
+        selectGiftAmount(form.amountOption(), form.customAmount());
+        if (form.sendToMe()) {
+            clickSendToMeTab();
+        } else {
+            clickSendToOtherTab();
+            fillRecipientEmailInputBox(form.recipientEmail());
+            fillMessageForRecipientInputBox(form.message());
+        }
+        fillPurchaserEmailInputBox(form.purchaserEmail());
+        fillFirstName(form.firstName());
+        fillLastName(form.lastName());
     }
 
     public void clickSendToMeTab() {
@@ -136,9 +201,7 @@ public class VoucherPage {
     }
 
     public void clickSendToOtherTab() {
-        page.getByRole(
-                AriaRole.LINK,
-                new Page.GetByRoleOptions().setName("Send to someone else")).click();
+        locators.get(SEND_TO_OTHER_TAB).click();
     }
 
     public void fillPurchaserEmailInputBox(String purchaserEmail) {
@@ -162,40 +225,58 @@ public class VoucherPage {
     }
 
     public String getTotalCost() {
-        String value = page.locator(TOTAL_COST_SPAN).nth(0).textContent().trim();
-        value = value.replaceAll("[^0-9.]", "");
-        int intValue = (int) Double.parseDouble(value); 
-        return String.valueOf(intValue);
+        return Amounts.wholeAmount(locators.get(TOTAL_COST_SPAN).textContent());
     }
 
     public String getVoucherIconAmount() {
-        String value = getVoucherAmountText().textContent().trim();
-        value = value.replaceAll("[^0-9.]", "");
-        int intValue = (int) Double.parseDouble(value); 
-        return String.valueOf(intValue);
+        return Amounts.wholeAmount(getVoucherAmountText().textContent());
     }
 
+    @PerfStep
     public void clickCheckoutButton() {
-        getCheckoutButton().nth(0).click();
+        getCheckoutButton().click();
     }
 
     public String getRecipientEmailText() {
-        return page.locator(RECIPIENT_EMAIL_INPUT_BOX).inputValue().trim();
+        return getRecipientEmailInputBox().inputValue().trim();
     }
 
     public String getSenderEmailText() {
-        return page.locator(PURCHASER_EMAIL_INPUT_BOX).inputValue().trim();
+        return getPurchaserEmailInputBox().inputValue().trim();
     }
 
     public String getFirstNameInputText() {
-        return page.locator(FIRST_NAME_INPUT_BOX).inputValue().trim();
+        return getFirstNameInputBox().inputValue().trim();
     }
 
     public String getLastNameInputText() {
-        return page.locator(LAST_NAME_INPUT_BOX).inputValue().trim();
+        return getLastNameInputBox().inputValue().trim();
     }
 
     public String getMessageForRecipientText() {
-        return page.locator(MESSAGE_FOR_RECIPIENT_INPUT_BOX).inputValue().trim();
+        return getMessageForRecipientInputBox().inputValue().trim();
+    }
+
+    /**
+     * Amounts and every form field in one round trip, once the total is on the page.
+     * Prefer this over the single getters when asserting on more than one field.
+     */
+    public VoucherFormSnapshot snapshot() {
+        Map<String, String> fields = DomReads.read(locators.get(TOTAL_COST_SPAN),
+                Map.of("totalCost", TOTAL_COST_SPAN.getCss(),
+                        "voucherIconAmount", VOUCHER_ICON_AMOUNT.getCss()),
+                Map.of("purchaserEmail", PURCHASER_EMAIL_INPUT_BOX.getCss(),
+                        "recipientEmail", RECIPIENT_EMAIL_INPUT_BOX.getCss(),
+                        "firstName", FIRST_NAME_INPUT_BOX.getCss(),
+                        "lastName", LAST_NAME_INPUT_BOX.getCss(),
+                        "message", MESSAGE_FOR_RECIPIENT_INPUT_BOX.getCss()));
+        return new VoucherFormSnapshot(
+                Amounts.wholeAmount(fields.get("totalCost")),
+                Amounts.wholeAmount(fields.get("voucherIconAmount")),
+                fields.get("purchaserEmail"),
+                fields.get("recipientEmail"),
+                fields.get("firstName"),
+                fields.get("lastName"),
+                fields.get("message"));
     }
 }
@@ -0,0 +1,33 @@
+package com.phorestdemo.payment;
+
+import com.microsoft.playwright.Frame;
+import com.microsoft.playwright.Locator;
+import com.microsoft.playwright.options.AriaRole;
+
+/**
+ * Types the card into Stripe's card element, the way a buyer does.
+ *
+ * The caller resolves the iframe once and passes its Frame in. All three fields are then
+ * filled in that frame, rather than each fill looking the iframe up again through a FrameLocator.
+ */
+public class IframePayment implements PaymentStrategy {
+
+    // Accessible names of the fields in Stripe's elements-inner-card iframe
+    public static final String CARD_NUMBER_LABEL = "Credit or debit card number";
+    public static final String CARD_EXPIRY_LABEL = "Credit or debit card expiration date";
+    public static final String CARD_CVC_LABEL = "Credit or debit card CVC/CVV";
+
+    static final IframePayment INSTANCE = new IframePayment();
+
+    @Override
+    public void enterCard(Frame cardFrame, String cardNumber, String expiry, String cvc) {
+        // Card number first: Stripe only enables the other fields once it has one
+        field(cardFrame, CARD_NUMBER_LABEL).fill(cardNumber);
+        field(cardFrame, CARD_EXPIRY_LABEL).fill(expiry);
+        field(cardFrame, CARD_CVC_LABEL).fill(cvc);
+    }
+
+    private static Locator field(Frame frame, String label) {
+        return frame.getByRole(AriaRole.TEXTBOX, new Frame.GetByRoleOptions().setName(label));
+    }
+}
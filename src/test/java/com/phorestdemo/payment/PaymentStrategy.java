@@ -0,0 +1,37 @@
+package com.phorestdemo.payment;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Frame;
+import com.phorestdemo.config.ConfigReader;
+
+/**
+ * How SummaryPage pays: how the card is entered into the Stripe card iframe, and
+ * what (if anything) a new browser context needs before the purchase starts.
+ *
+ * {@link IframePayment} (payment=iframe) types into the real card element;
+ * {@link StubbedPayment} (payment=stub) does the same but answers Stripe's API calls
+ * with canned responses, so paying doesn't wait on Stripe.
+ */
+public interface PaymentStrategy {
+
+    /**
+     * Called once per new browser context, before its first page opens.
+     */
+    default void prepare(BrowserContext context) {
+    }
+
+    /**
+     * Fills the card number, expiry and CVC inside the already resolved card iframe.
+     */
+    void enterCard(Frame cardFrame, String cardNumber, String expiry, String cvc);
+
+    static PaymentStrategy fromConfig() {
+        switch (ConfigReader.getPayment().toLowerCase()) {
+            case "stub":
+                return StubbedPayment.INSTANCE;
+            case "iframe":
+            default:
+                return IframePayment.INSTANCE;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.phorestdemo.payment;
+
+import com.microsoft.playwright.BrowserContext;
+import com.phorestdemo.stub.StripeStub;
+
+/**
+ * Enters the card like {@link IframePayment}, but routes the context's Stripe API calls
+ * to {@link StripeStub}, which confirms every payment intent straight away. For runs against
+ * the storefront stub and load runs, where Stripe's own latency is just noise.
+ */
+public class StubbedPayment extends IframePayment {
+
+    static final StubbedPayment INSTANCE = new StubbedPayment();
+
+    @Override
+    public void prepare(BrowserContext context) {
+        StripeStub.route(context);
+    }
+}
@@ -0,0 +1,106 @@
+package com.phorestdemo.scenarios;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Deterministic source of {@link VoucherScenario}s.
+ *
+ * Scenario i depends only on (seed, i), so any index range can be generated on its own:
+ * shards and CI nodes each stream just their slice, lazily, and a failing scenario can be
+ * replayed from its seed and index.
+ */
+public class ScenarioGenerator {
+
+    private static final String[] FIRST_NAMES = {
+            "John", "Jane", "Tom", "Siobhán", "Zoë", "Łukasz", "José", "Søren", "Ólafur",
+            "Nguyễn", "Aoife", "François", "Björk", "Dvořák", "Mónica", "Ağrı", "美咲", "Александр"
+    };
+    private static final String[] LAST_NAMES = {
+            "Doe", "Doyle", "Ó Sé", "Müller", "Kowalski", "García", "Østergaard", "Ní Bhriain",
+            "O'Brien", "Smith-Jones", "Văn", "Żółć", "Straße", "田中", "Иванов"
+    };
+    private static final String[] WORDS = {
+            "happy", "birthday", "enjoy", "treat", "yourself", "love", "from", "all", "of", "us",
+            "congratulations", "thank", "you", "spa", "day", "relax", "🎉", "💇", "ár", "lá", "breithe", "shona"
+    };
+    // Upper bounds for the message length buckets: none, short, medium, long
+    private static final int[] MESSAGE_LENGTHS = {0, 40, 200, 500};
+
+    private final long seed;
+    private final List<String> presetAmounts;
+
+    public ScenarioGenerator(long seed, List<String> presetAmounts) {
+        if (presetAmounts.isEmpty()) {
+            throw new IllegalArgumentException("At least one preset amount is required");
+        }
+        this.seed = seed;
+        this.presetAmounts = List.copyOf(presetAmounts);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public VoucherScenario scenario(long index) {
+        SplittableRandom random = new SplittableRandom(seed ^ mix(index));
+
+        boolean other = random.nextInt(4) == 0;
+        String amountOption = other ? "Other" : presetAmounts.get(random.nextInt(presetAmounts.size()));
+        String customAmount = other ? String.valueOf(10 + random.nextInt(491)) : null;
+        boolean sendToMe = random.nextBoolean();
+
+        String firstName = pick(random, FIRST_NAMES);
+        String lastName = pick(random, LAST_NAMES);
+        String purchaserEmail = "gen-" + Long.toHexString(seed) + "-" + index + "@phorestdemo.test";
+        String recipientEmail = "gen-" + Long.toHexString(seed) + "-" + index + "-to@phorestdemo.test";
+        String message = sendToMe ? "" : message(random, MESSAGE_LENGTHS[random.nextInt(MESSAGE_LENGTHS.length)]);
+        // Most buyers never edit; a few go back once or twice
+        int editLoops = random.nextInt(10) < 7 ? 0 : 1 + random.nextInt(2);
+
+        return new VoucherScenario(index, amountOption, customAmount, sendToMe,
+                firstName, lastName, purchaserEmail, recipientEmail, message, editLoops);
+    }
+
+    /**
+     * Scenarios [from, to), generated one at a time as the stream is consumed.
+     */
+    public Stream<VoucherScenario> stream(long from, long to) {
+        return LongStream.range(from, to).mapToObj(this::scenario);
+    }
+
+    private static String message(SplittableRandom random, int maxLength) {
+        if (maxLength == 0) {
+            return "";
+        }
+        int target = 1 + random.nextInt(maxLength);
+        StringBuilder message = new StringBuilder();
+        while (message.length() < target) {
+            String word = pick(random, WORDS);
+            int separator = message.length() > 0 ? 1 : 0;
+            // Stop at a word boundary rather than cutting a word (or an emoji) in half
+            if (message.length() + separator + word.length() > maxLength) {
+                break;
+            }
+            if (separator > 0) {
+                message.append(' ');
+            }
+            message.append(word);
+        }
+        return message.toString();
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    // SplitMix64 finaliser so neighbouring indexes get unrelated streams
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,79 @@
+package com.phorestdemo.scenarios;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("UnitTests")
+class ScenarioGeneratorTest {
+
+    private static final List<String> PRESETS = List.of("50", "100", "150");
+
+    @Test
+    void scenarioDependsOnlyOnSeedAndIndex() {
+        ScenarioGenerator first = new ScenarioGenerator(42, PRESETS);
+        ScenarioGenerator second = new ScenarioGenerator(42, PRESETS);
+        // Out of order on purpose: no scenario may depend on the ones generated before it
+        for (long index : new long[]{7, 0, 999, 3, 7}) {
+            assertSameScenario(first.scenario(index), second.scenario(index));
+        }
+    }
+
+    @Test
+    void streamMatchesSingleScenarios() {
+        ScenarioGenerator generator = new ScenarioGenerator(42, PRESETS);
+        List<VoucherScenario> streamed = generator.stream(10, 20).collect(Collectors.toList());
+        assertEquals(10, streamed.size());
+        for (VoucherScenario scenario : streamed) {
+            assertSameScenario(generator.scenario(scenario.getIndex()), scenario);
+        }
+    }
+
+    @Test
+    void otherSeedsGiveOtherScenarios() {
+        Set<String> a = names(new ScenarioGenerator(1, PRESETS));
+        Set<String> b = names(new ScenarioGenerator(2, PRESETS));
+        assertNotEquals(a, b);
+    }
+
+    @Test
+    void scenariosAreValidForTheForm() {
+        new ScenarioGenerator(42, PRESETS).stream(0, 200).forEach(scenario -> {
+            if (scenario.isCustomAmount()) {
+                assertEquals("Other", scenario.getAmountOption());
+                int amount = Integer.parseInt(scenario.getCustomAmount());
+                assertTrue(amount >= 10 && amount <= 500, scenario.toString());
+            } else {
+                assertTrue(PRESETS.contains(scenario.getAmountOption()), scenario.toString());
+            }
+            if (scenario.isSendToMe()) {
+                assertEquals("", scenario.getMessage());
+            }
+            assertTrue(scenario.getMessage().length() <= 500, scenario.toString());
+            assertTrue(scenario.getEditLoops() >= 0 && scenario.getEditLoops() <= 2, scenario.toString());
+        });
+    }
+
+    @Test
+    void presetAmountsAreRequired() {
+        assertThrows(IllegalArgumentException.class, () -> new ScenarioGenerator(42, List.of()));
+    }
+
+    private static Set<String> names(ScenarioGenerator generator) {
+        return generator.stream(0, 20).map(VoucherScenario::getDisplayName).collect(Collectors.toSet());
+    }
+
+    private static void assertSameScenario(VoucherScenario expected, VoucherScenario actual) {
+        assertEquals(expected.getIndex(), actual.getIndex());
+        assertEquals(expected.toForm(), actual.toForm());
+        assertEquals(expected.getEditLoops(), actual.getEditLoops());
+    }
+}
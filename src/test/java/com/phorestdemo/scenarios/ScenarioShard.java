@@ -0,0 +1,38 @@
+package com.phorestdemo.scenarios;
+
+import com.phorestdemo.config.ConfigReader;
+
+/**
+ * The slice of the scenario index space this JVM runs: [from, to).
+ * The total is split into shardTotal contiguous ranges, one per CI node.
+ */
+public class ScenarioShard {
+
+    private final long from;
+    private final long to;
+
+    public ScenarioShard(long scenarioCount, int shardIndex, int shardTotal) {
+        if (shardTotal < 1 || shardIndex < 0 || shardIndex >= shardTotal) {
+            throw new IllegalArgumentException("Invalid shard " + shardIndex + "/" + shardTotal);
+        }
+        this.from = scenarioCount * shardIndex / shardTotal;
+        this.to = scenarioCount * (shardIndex + 1) / shardTotal;
+    }
+
+    public static ScenarioShard fromConfig() {
+        return new ScenarioShard(ConfigReader.getScenarioCount(), ConfigReader.getShardIndex(), ConfigReader.getShardTotal());
+    }
+
+    public long getFrom() {
+        return from;
+    }
+
+    public long getTo() {
+        return to;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + from + ", " + to + ")";
+    }
+}
@@ -0,0 +1,44 @@
+package com.phorestdemo.scenarios;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("UnitTests")
+class ScenarioShardTest {
+
+    @Test
+    void shardsSplitTheIndexSpaceIntoContiguousRanges() {
+        for (long count : new long[]{0, 1, 7, 10, 1000}) {
+            for (int total = 1; total <= 5; total++) {
+                long expectedFrom = 0;
+                for (int index = 0; index < total; index++) {
+                    ScenarioShard shard = new ScenarioShard(count, index, total);
+                    assertEquals(expectedFrom, shard.getFrom(), "Gap or overlap before shard " + index + "/" + total);
+                    long size = shard.getTo() - shard.getFrom();
+                    assertTrue(size >= count / total && size <= count / total + 1,
+                            "Shard " + index + "/" + total + " of " + count + " is " + shard);
+                    expectedFrom = shard.getTo();
+                }
+                assertEquals(count, expectedFrom, "Shards of " + count + " don't end at the total");
+            }
+        }
+    }
+
+    @Test
+    void singleShardRunsEverything() {
+        ScenarioShard shard = new ScenarioShard(25, 0, 1);
+        assertEquals(0, shard.getFrom());
+        assertEquals(25, shard.getTo());
+    }
+
+    @Test
+    void shardOutsideTheTotalIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ScenarioShard(10, 3, 3));
+        assertThrows(IllegalArgumentException.class, () -> new ScenarioShard(10, -1, 3));
+        assertThrows(IllegalArgumentException.class, () -> new ScenarioShard(10, 0, 0));
+    }
+}
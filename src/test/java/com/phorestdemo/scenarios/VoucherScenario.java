@@ -0,0 +1,116 @@
+package com.phorestdemo.scenarios;
+
+import com.phorestdemo.pages.VoucherForm;
+
+/**
+ * One generated purchase: which amount to pick, who it goes to and how many
+ * times the buyer goes back from the summary to edit the form.
+ */
+public class VoucherScenario {
+
+    private final long index;
+    private final String amountOption;
+    private final String customAmount;
+    private final boolean sendToMe;
+    private final String firstName;
+    private final String lastName;
+    private final String purchaserEmail;
+    private final String recipientEmail;
+    private final String message;
+    private final int editLoops;
+
+    VoucherScenario(long index, String amountOption, String customAmount, boolean sendToMe,
+                    String firstName, String lastName, String purchaserEmail, String recipientEmail,
+                    String message, int editLoops) {
+        this.index = index;
+        this.amountOption = amountOption;
+        this.customAmount = customAmount;
+        this.sendToMe = sendToMe;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.purchaserEmail = purchaserEmail;
+        this.recipientEmail = recipientEmail;
+        this.message = message;
+        this.editLoops = editLoops;
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    /**
+     * A preset amount such as "150", or "Other".
+     */
+    public String getAmountOption() {
+        return amountOption;
+    }
+
+    // Only set when the amount option is "Other"
+    public String getCustomAmount() {
+        return customAmount;
+    }
+
+    public boolean isCustomAmount() {
+        return customAmount != null;
+    }
+
+    /**
+     * The whole-euro amount the pages should show, e.g. "123".
+     */
+    public String getExpectedAmount() {
+        return isCustomAmount() ? customAmount : amountOption;
+    }
+
+    public boolean isSendToMe() {
+        return sendToMe;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getPurchaserEmail() {
+        return purchaserEmail;
+    }
+
+    // The purchaser's own address when sending to me
+    public String getRecipientEmail() {
+        return sendToMe ? purchaserEmail : recipientEmail;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public int getEditLoops() {
+        return editLoops;
+    }
+
+    /**
+     * The voucher screen's fields for this scenario, for seeding the form in one step.
+     */
+    public VoucherForm toForm() {
+        return new VoucherForm(amountOption, customAmount, sendToMe, purchaserEmail, firstName, lastName,
+                recipientEmail, message);
+    }
+
+    public String getDisplayName() {
+        return String.format("#%d %s %s msg=%d edits=%d %s %s",
+                index,
+                isCustomAmount() ? "Other(€" + customAmount + ")" : "€" + amountOption,
+                sendToMe ? "send-to-me" : "send-to-other",
+                message.length(),
+                editLoops,
+                firstName,
+                lastName);
+    }
+
+    @Override
+    public String toString() {
+        return getDisplayName();
+    }
+}
@@ -0,0 +1,74 @@
+package com.phorestdemo.sharding;
+
+import org.junit.jupiter.api.ClassDescriptor;
+import org.junit.jupiter.api.ClassOrderer;
+import org.junit.jupiter.api.ClassOrdererContext;
+import org.junit.jupiter.api.MethodDescriptor;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.MethodOrdererContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestTemplate;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+import java.lang.reflect.Method;
+import java.util.Comparator;
+import java.util.Optional;
+
+/**
+ * Starts the slowest work first, using durations from previous runs (see {@link TestDurations}).
+ *
+ * With the parallel executor, idle workers pick up the next test in this order, so long
+ * email-waiting tests start straight away instead of leaving one worker busy at the end of
+ * the run while the rest are idle. Classes are ordered by the sum of their tests' durations.
+ * Tests with no history are estimated at the median of the known ones.
+ *
+ * Enabled as both junit.jupiter.testclass.order.default and junit.jupiter.testmethod.order.default
+ * in the surefire configuration; an explicit @TestMethodOrder/@TestClassOrder still wins.
+ */
+public class LongestFirstOrderer implements ClassOrderer, MethodOrderer {
+
+    @Override
+    public void orderClasses(ClassOrdererContext context) {
+        context.getClassDescriptors().sort(Comparator
+                .comparingLong((ClassDescriptor descriptor) -> expectedMillis(descriptor.getTestClass()))
+                .reversed()
+                .thenComparing(descriptor -> descriptor.getTestClass().getName()));
+    }
+
+    @Override
+    public void orderMethods(MethodOrdererContext context) {
+        context.getMethodDescriptors().sort(Comparator
+                .comparingLong((MethodDescriptor descriptor) -> expectedMillis(descriptor.getMethod()))
+                .reversed()
+                .thenComparing(descriptor -> descriptor.getMethod().getName()));
+    }
+
+    /**
+     * Leaves the execution mode alone. MethodOrderer defaults to SAME_THREAD, which as the default
+     * orderer would run every class's tests one after another on the parallel executor.
+     */
+    @Override
+    public Optional<ExecutionMode> getDefaultExecutionMode() {
+        return Optional.empty();
+    }
+
+    static long expectedMillis(Class<?> testClass) {
+        long total = 0;
+        for (Class<?> type = testClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                // Templates include @BrowserTest, whose browser invocations share one duration
+                if (method.isAnnotationPresent(Test.class) || AnnotationSupport.isAnnotated(method, TestTemplate.class)) {
+                    total += expectedMillis(method);
+                }
+            }
+        }
+        return total;
+    }
+
+    static long expectedMillis(Method method) {
+        TestDurations history = TestDurations.history();
+        return history.get(TestDurations.testId(method.getDeclaringClass().getName(), method.getName()),
+                history.median());
+    }
+}
@@ -0,0 +1,71 @@
+package com.phorestdemo.sharding;
+
+import com.phorestdemo.tests.BrowserTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+@Tag("UnitTests")
+class LongestFirstOrdererTest {
+
+    // Test name -> {start, end} in nanos
+    private static final Map<String, long[]> RUNS = new ConcurrentHashMap<>();
+
+    @Test
+    void methodsOfOneClassStillRunConcurrently() {
+        RUNS.clear();
+        // The surefire configuration from pom.xml, with a fixed pool instead of workerPoolSize
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder.request()
+                .selectors(selectClass(VoucherTestsLike.class))
+                .configurationParameters(Map.of(
+                        "junit.jupiter.execution.parallel.enabled", "true",
+                        "junit.jupiter.execution.parallel.mode.default", "concurrent",
+                        "junit.jupiter.execution.parallel.mode.classes.default", "concurrent",
+                        "junit.jupiter.execution.parallel.config.strategy", "fixed",
+                        "junit.jupiter.execution.parallel.config.fixed.parallelism", "3",
+                        "junit.jupiter.testmethod.order.default", LongestFirstOrderer.class.getName()))
+                .build();
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        LauncherFactory.create().execute(request, listener);
+
+        assertEquals(3, listener.getSummary().getTestsSucceededCount());
+        long lastStart = RUNS.values().stream().mapToLong(run -> run[0]).max().orElseThrow();
+        long firstEnd = RUNS.values().stream().mapToLong(run -> run[1]).min().orElseThrow();
+        assertTrue(lastStart < firstEnd, "Tests of one class ran one after another");
+    }
+
+    // Shaped like VoucherTests: @Test and @BrowserTest methods in one class
+    static class VoucherTestsLike {
+
+        @Test
+        void first() throws InterruptedException {
+            run("first");
+        }
+
+        @BrowserTest
+        void second() throws InterruptedException {
+            run("second");
+        }
+
+        @BrowserTest
+        void third() throws InterruptedException {
+            run("third");
+        }
+
+        private static void run(String name) throws InterruptedException {
+            long start = System.nanoTime();
+            Thread.sleep(500);
+            RUNS.put(name, new long[]{start, System.nanoTime()});
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.phorestdemo.sharding;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Predicted wall-clock time for a set of tests on a fixed number of workers.
+ */
+public final class Makespan {
+
+    private Makespan() {
+    }
+
+    /**
+     * Longest-first list scheduling: each test, slowest first, goes to the worker that frees up first.
+     * Returns the time the last worker finishes.
+     */
+    public static long longestFirst(Collection<Long> durations, int workers) {
+        PriorityQueue<Long> finishTimes = new PriorityQueue<>();
+        for (int i = 0; i < Math.max(1, workers); i++) {
+            finishTimes.add(0L);
+        }
+        durations.stream()
+                .sorted(Comparator.reverseOrder())
+                .forEach(duration -> finishTimes.add(finishTimes.poll() + duration));
+
+        long makespan = 0;
+        for (long finish : finishTimes) {
+            makespan = Math.max(makespan, finish);
+        }
+        return makespan;
+    }
+}
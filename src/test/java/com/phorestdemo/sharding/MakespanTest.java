@@ -0,0 +1,32 @@
+package com.phorestdemo.sharding;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Tag("UnitTests")
+class MakespanTest {
+
+    @Test
+    void slowestTestsGoFirstToTheWorkerThatFreesUpFirst() {
+        assertEquals(17, Makespan.longestFirst(List.of(4L, 5L, 6L, 7L, 8L), 2));
+    }
+
+    @Test
+    void oneTestLongerThanTheRestBoundsTheMakespan() {
+        assertEquals(30, Makespan.longestFirst(List.of(30L, 5L, 5L, 5L), 3));
+    }
+
+    @Test
+    void noWorkersRunsOnOne() {
+        assertEquals(6, Makespan.longestFirst(List.of(1L, 2L, 3L), 0));
+    }
+
+    @Test
+    void noTestsTakeNoTime() {
+        assertEquals(0, Makespan.longestFirst(List.of(), 4));
+    }
+}
@@ -0,0 +1,90 @@
+package com.phorestdemo.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides which shard runs which test. Every node computes the same answer on its own
+ * from the test IDs (and, for timing, the same durations file), so no coordinator is needed.
+ *
+ * hash   - consistent hashing: each shard owns points on a ring; a test goes to the next
+ *          point after its hash. Changing the shard count moves only ~1/N of the tests.
+ * timing - longest-first greedy packing on previous durations, so shards finish together.
+ */
+public final class ShardAssigner {
+
+    private static final int VIRTUAL_NODES = 128;
+
+    private static final Map<Integer, NavigableMap<Long, Integer>> RINGS = new ConcurrentHashMap<>();
+
+    private ShardAssigner() {
+    }
+
+    public static int byHash(String testId, int shardTotal) {
+        NavigableMap<Long, Integer> ring = ring(shardTotal);
+        Map.Entry<Long, Integer> owner = ring.ceilingEntry(hash(testId));
+        return owner != null ? owner.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * testId -> shard for all tests, packing the longest (by history) first onto the least loaded shard.
+     */
+    public static Map<String, Integer> byTiming(Collection<String> testIds, int shardTotal, TestDurations durations) {
+        long fallback = Math.max(1, durations.median());
+        List<String> ordered = new ArrayList<>(testIds);
+        ordered.sort(Comparator.comparingLong((String id) -> durations.get(id, fallback))
+                .reversed()
+                .thenComparing(Comparator.naturalOrder()));
+
+        long[] load = new long[shardTotal];
+        Map<String, Integer> assignment = new HashMap<>();
+        for (String id : ordered) {
+            int lightest = 0;
+            for (int shard = 1; shard < shardTotal; shard++) {
+                if (load[shard] < load[lightest]) {
+                    lightest = shard;
+                }
+            }
+            load[lightest] += durations.get(id, fallback);
+            assignment.put(id, lightest);
+        }
+        return assignment;
+    }
+
+
+    private static NavigableMap<Long, Integer> ring(int shardTotal) {
+        return RINGS.computeIfAbsent(shardTotal, total -> {
+            NavigableMap<Long, Integer> ring = new TreeMap<>();
+            for (int shard = 0; shard < total; shard++) {
+                for (int replica = 0; replica < VIRTUAL_NODES; replica++) {
+                    ring.put(hash("shard-" + shard + "-" + replica), shard);
+                }
+            }
+            return ring;
+        });
+    }
+
+    // First 8 bytes of MD5 - stable across JVMs and machines, unlike String.hashCode for long IDs
+    static long hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < 8; i++) {
+                hash = (hash << 8) | (digest[i] & 0xFF);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
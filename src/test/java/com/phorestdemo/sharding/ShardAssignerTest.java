@@ -0,0 +1,83 @@
+package com.phorestdemo.sharding;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("UnitTests")
+class ShardAssignerTest {
+
+    private static final List<String> TESTS = testIds(300);
+
+    @Test
+    void hashGivesEveryTestOneShardInRange() {
+        int[] perShard = new int[3];
+        for (String id : TESTS) {
+            int shard = ShardAssigner.byHash(id, 3);
+            assertTrue(shard >= 0 && shard < 3, id + " went to shard " + shard);
+            assertEquals(shard, ShardAssigner.byHash(id, 3), id + " moved between calls");
+            perShard[shard]++;
+        }
+        for (int shard = 0; shard < 3; shard++) {
+            assertTrue(perShard[shard] > TESTS.size() / 6, "Shard " + shard + " got only " + perShard[shard]);
+        }
+    }
+
+    @Test
+    void hashMovesTestsOnlyToAnAddedShard() {
+        int moved = 0;
+        for (String id : TESTS) {
+            int before = ShardAssigner.byHash(id, 3);
+            int after = ShardAssigner.byHash(id, 4);
+            if (before != after) {
+                assertEquals(3, after, id + " moved between existing shards");
+                moved++;
+            }
+        }
+        assertTrue(moved > 0 && moved < TESTS.size() / 2, moved + " of " + TESTS.size() + " tests moved");
+    }
+
+    @Test
+    void timingAssignsEveryTestOnce() {
+        TestDurations durations = new TestDurations();
+        for (int i = 0; i < TESTS.size(); i += 2) {
+            durations.record(TESTS.get(i), 100 + i);
+        }
+        Map<String, Integer> assignment = ShardAssigner.byTiming(TESTS, 4, durations);
+        assertEquals(TESTS.size(), assignment.size());
+        assertTrue(assignment.keySet().containsAll(TESTS));
+        assignment.values().forEach(shard -> assertTrue(shard >= 0 && shard < 4, "Shard " + shard));
+    }
+
+    @Test
+    void timingPacksLongestFirstOntoTheLightestShard() {
+        TestDurations durations = new TestDurations();
+        durations.record("A#a", 8);
+        durations.record("A#b", 7);
+        durations.record("A#c", 6);
+        durations.record("A#d", 5);
+        durations.record("A#e", 4);
+        Map<String, Integer> assignment = ShardAssigner.byTiming(List.of("A#e", "A#d", "A#c", "A#b", "A#a"), 2,
+                durations);
+
+        long[] load = new long[2];
+        assignment.forEach((id, shard) -> load[shard] += durations.get(id, 0));
+        // 8 | 7, then 6 joins 7, 5 joins 8, and 4 goes to the first of the two at 13
+        assertArrayEquals(new long[]{17, 13}, load);
+    }
+
+    private static List<String> testIds(int count) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(TestDurations.testId("com.phorestdemo.tests.Generated" + i % 7, "test" + i));
+        }
+        return ids;
+    }
+}
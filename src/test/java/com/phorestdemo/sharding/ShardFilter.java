@@ -0,0 +1,104 @@
+package com.phorestdemo.sharding;
+
+import com.phorestdemo.config.ConfigReader;
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps only this node's share of the @Test methods when shardTotal > 1.
+ *
+ * Registered through META-INF/services, so every launcher (Surefire, the IDE) picks it up.
+ * Test templates such as @BrowserTest are sharded by their method, so all of a method's
+ * invocations run on the same node. Dynamic test factories are always kept; they slice
+ * their own scenarios by shard (see ScenarioShard).
+ */
+public class ShardFilter implements PostDiscoveryFilter {
+
+    // Unique ID segment of Jupiter's test template descriptors, e.g. [test-template:sendToMeTest()]
+    private static final String TEST_TEMPLATE_SEGMENT = "test-template";
+
+    private final int shardIndex;
+    private final int shardTotal;
+    private final String strategy;
+
+    // Timing assignment needs the whole test plan; computed on the first test seen
+    private Map<String, Integer> timingAssignment;
+
+    public ShardFilter() {
+        this(ConfigReader.getShardIndex(), ConfigReader.getShardTotal(), ConfigReader.getShardStrategy());
+    }
+
+    ShardFilter(int shardIndex, int shardTotal, String strategy) {
+        this.shardIndex = shardIndex;
+        this.shardTotal = shardTotal;
+        this.strategy = strategy;
+    }
+
+    @Override
+    public synchronized FilterResult apply(TestDescriptor descriptor) {
+        if (shardTotal <= 1) {
+            return FilterResult.included("not sharded");
+        }
+        if (!isShardable(descriptor)) {
+            return FilterResult.included("container");
+        }
+        int shard = shardOf(descriptor, testId(descriptor).orElseThrow());
+        return shard == shardIndex
+                ? FilterResult.included("shard " + shard + "/" + shardTotal)
+                : FilterResult.excluded("shard " + shard + "/" + shardTotal);
+    }
+
+    private int shardOf(TestDescriptor descriptor, String testId) {
+        if (!"timing".equalsIgnoreCase(strategy)) {
+            return ShardAssigner.byHash(testId, shardTotal);
+        }
+        if (timingAssignment == null) {
+            TestDescriptor root = descriptor;
+            while (root.getParent().isPresent()) {
+                root = root.getParent().get();
+            }
+            List<String> testIds = new ArrayList<>();
+            for (TestDescriptor test : root.getDescendants()) {
+                if (isShardable(test)) {
+                    testId(test).ifPresent(testIds::add);
+                }
+            }
+            TestDurations durations = TestDurations.history();
+            if (durations.isEmpty()) {
+                System.err.println("No test durations at " + ConfigReader.getTestDurations()
+                        + ", timing shards will be balanced by test count");
+            }
+            timingAssignment = ShardAssigner.byTiming(testIds, shardTotal, durations);
+        }
+        return timingAssignment.getOrDefault(testId, ShardAssigner.byHash(testId, shardTotal));
+    }
+
+    // A test method, or a test template (a container for a method's invocations, registered
+    // during execution); not a test factory, whose dynamic tests slice themselves
+    static boolean isShardable(TestDescriptor descriptor) {
+        if (testId(descriptor).isEmpty()) {
+            return false;
+        }
+        if (TEST_TEMPLATE_SEGMENT.equals(descriptor.getUniqueId().getLastSegment().getType())) {
+            return true;
+        }
+        return descriptor.isTest() && !descriptor.mayRegisterTests();
+    }
+
+    static Optional<String> testId(TestDescriptor descriptor) {
+        Optional<TestSource> source = descriptor.getSource();
+        if (source.isPresent() && source.get() instanceof MethodSource) {
+            MethodSource method = (MethodSource) source.get();
+            return Optional.of(TestDurations.testId(method.getClassName(), method.getMethodName()));
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,102 @@
+package com.phorestdemo.sharding;
+
+import com.phorestdemo.tests.BrowserTest;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+@Tag("UnitTests")
+class ShardFilterTest {
+
+    private static final Set<String> SHARDED = Set.of("plain1", "plain2", "plain3", "browser1", "browser2", "browser3",
+            "browser4", "browser5");
+
+    @Test
+    void hashShardsSplitTestsAndTemplatesWithoutOverlap() {
+        assertShardsPartition("hash");
+    }
+
+    @Test
+    void timingShardsSplitTestsAndTemplatesWithoutOverlap() {
+        assertShardsPartition("timing");
+    }
+
+    private static void assertShardsPartition(String strategy) {
+        Set<String> seen = new HashSet<>();
+        for (int shard = 0; shard < 3; shard++) {
+            Set<String> methods = discover(new ShardFilter(shard, 3, strategy));
+            assertTrue(methods.contains("factory"), "Factories run on every shard: " + methods);
+            methods.remove("factory");
+            for (String method : methods) {
+                assertTrue(seen.add(method), method + " is in more than one shard");
+            }
+        }
+        assertEquals(SHARDED, seen);
+    }
+
+    private static Set<String> discover(ShardFilter filter) {
+        TestPlan plan = LauncherFactory.create().discover(LauncherDiscoveryRequestBuilder.request()
+                .selectors(selectClass(Fixture.class))
+                .filters(filter)
+                .build());
+        Set<String> methods = new HashSet<>();
+        plan.getRoots().forEach(root -> plan.getDescendants(root).stream()
+                .map(TestIdentifier::getLegacyReportingName)
+                .filter(name -> name.endsWith("()"))
+                .forEach(name -> methods.add(name.substring(0, name.length() - 2))));
+        return methods;
+    }
+
+    static class Fixture {
+
+        @Test
+        void plain1() {
+        }
+
+        @Test
+        void plain2() {
+        }
+
+        @Test
+        void plain3() {
+        }
+
+        @BrowserTest
+        void browser1() {
+        }
+
+        @BrowserTest
+        void browser2() {
+        }
+
+        @BrowserTest
+        void browser3() {
+        }
+
+        @BrowserTest
+        void browser4() {
+        }
+
+        @BrowserTest
+        void browser5() {
+        }
+
+        @TestFactory
+        Stream<DynamicTest> factory() {
+            return Stream.empty();
+        }
+    }
+}
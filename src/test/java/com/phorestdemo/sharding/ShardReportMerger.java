@@ -0,0 +1,158 @@
+package com.phorestdemo.sharding;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Combines the results of a sharded run into one report.
+ *
+ * Each shard directory holds that node's Surefire TEST-*.xml files and, optionally, its
+ * test-durations.properties. Suites with the same name are merged into one TEST-*.xml in the
+ * output directory, durations are merged into output/test-durations.properties (feed it back
+ * as -DtestDurations for the next timing-balanced run), and a per-shard summary is printed.
+ *
+ * Usage: ShardReportMerger &lt;output dir&gt; &lt;shard dir&gt;...
+ * Exits with 1 when any merged test failed or errored.
+ */
+public class ShardReportMerger {
+
+    private static final String DURATIONS_FILE = "test-durations.properties";
+
+    private final Map<String, Element> suites = new TreeMap<>();
+    private final Document output;
+    private final DocumentBuilder builder;
+    private final List<String> shardLines = new ArrayList<>();
+
+    public ShardReportMerger() throws Exception {
+        builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        output = builder.newDocument();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: ShardReportMerger <output dir> <shard dir>...");
+            System.exit(2);
+        }
+        ShardReportMerger merger = new ShardReportMerger();
+        TestDurations durations = new TestDurations();
+        for (int i = 1; i < args.length; i++) {
+            Path shardDir = Paths.get(args[i]);
+            merger.addShard(shardDir);
+            durations.putAll(TestDurations.load(shardDir.resolve(DURATIONS_FILE)));
+        }
+
+        Path outputDir = Paths.get(args[0]);
+        int failed = merger.write(outputDir);
+        if (!durations.isEmpty()) {
+            durations.save(outputDir.resolve(DURATIONS_FILE));
+        }
+        merger.shardLines.forEach(System.out::println);
+        System.out.println("[shards] merged report written to " + outputDir.toAbsolutePath());
+        System.exit(failed > 0 ? 1 : 0);
+    }
+
+    public void addShard(Path shardDir) throws Exception {
+        List<Path> reports;
+        try (Stream<Path> files = Files.list(shardDir)) {
+            reports = files.filter(f -> f.getFileName().toString().matches("TEST-.*\\.xml")).sorted().toList();
+        } catch (IOException e) {
+            System.err.println("Skipping shard " + shardDir + ": " + e.getMessage());
+            return;
+        }
+
+        int tests = 0;
+        int failures = 0;
+        double seconds = 0;
+        for (Path report : reports) {
+            Element suite = builder.parse(report.toFile()).getDocumentElement();
+            tests += intAttribute(suite, "tests");
+            failures += intAttribute(suite, "failures") + intAttribute(suite, "errors");
+            seconds += doubleAttribute(suite, "time");
+            merge(suite);
+        }
+        shardLines.add(String.format(Locale.ROOT, "[shards] %-30s %4d tests %3d failed %9.1f s",
+                shardDir, tests, failures, seconds));
+    }
+
+    private void merge(Element suite) {
+        String name = suite.getAttribute("name");
+        Element merged = suites.get(name);
+        if (merged == null) {
+            merged = output.createElement("testsuite");
+            merged.setAttribute("name", name);
+            for (String counter : new String[]{"tests", "failures", "errors", "skipped", "time"}) {
+                merged.setAttribute(counter, "0");
+            }
+            suites.put(name, merged);
+        }
+        for (String counter : new String[]{"tests", "failures", "errors", "skipped"}) {
+            merged.setAttribute(counter, String.valueOf(intAttribute(merged, counter) + intAttribute(suite, counter)));
+        }
+        merged.setAttribute("time", String.format(Locale.ROOT, "%.3f",
+                doubleAttribute(merged, "time") + doubleAttribute(suite, "time")));
+
+        // Each shard has the same properties block; keep only the test cases
+        NodeList children = suite.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            if (child instanceof Element && "testcase".equals(child.getNodeName())) {
+                merged.appendChild(output.importNode(child, true));
+            }
+        }
+    }
+
+    /**
+     * Writes one TEST-&lt;suite&gt;.xml per merged suite and returns the number of failed or errored tests.
+     */
+    public int write(Path outputDir) throws Exception {
+        Files.createDirectories(outputDir);
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+
+        int failed = 0;
+        int total = 0;
+        for (Map.Entry<String, Element> entry : suites.entrySet()) {
+            Element suite = entry.getValue();
+            total += intAttribute(suite, "tests");
+            failed += intAttribute(suite, "failures") + intAttribute(suite, "errors");
+
+            Document document = builder.newDocument();
+            document.appendChild(document.importNode(suite, true));
+            transformer.transform(new DOMSource(document),
+                    new StreamResult(outputDir.resolve("TEST-" + entry.getKey() + ".xml").toFile()));
+        }
+        shardLines.add(String.format(Locale.ROOT, "[shards] %-30s %4d tests %3d failed",
+                "total", total, failed));
+        return failed;
+    }
+
+    private static int intAttribute(Element element, String name) {
+        String value = element.getAttribute(name);
+        return value.isEmpty() ? 0 : Integer.parseInt(value.trim());
+    }
+
+    private static double doubleAttribute(Element element, String name) {
+        String value = element.getAttribute(name).replace(",", "");
+        return value.isEmpty() ? 0 : Double.parseDouble(value.trim());
+    }
+}
@@ -0,0 +1,122 @@
+package com.phorestdemo.sharding;
+
+import com.phorestdemo.config.ConfigReader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-test durations from previous runs, as "ClassName#method=millis" properties.
+ *
+ * Used to balance shards and order tests. New measurements are blended with the
+ * stored value so a single slow run doesn't swing the next assignment.
+ */
+public class TestDurations {
+
+    // Weight of the newest run in the moving average
+    private static final double NEW_WEIGHT = 0.5;
+
+    private static volatile TestDurations history;
+
+    private final Map<String, Long> millis = new ConcurrentHashMap<>();
+
+    /**
+     * Durations from previous runs (the testDurations file), loaded once and never modified,
+     * for shard assignment, test ordering and makespan prediction.
+     */
+    public static TestDurations history() {
+        if (history == null) {
+            synchronized (TestDurations.class) {
+                if (history == null) {
+                    history = load(Paths.get(ConfigReader.getTestDurations()));
+                }
+            }
+        }
+        return history;
+    }
+
+    /**
+     * The key tests are stored and sharded under, e.g. "com.phorestdemo.tests.VoucherTests#sendToMeTest".
+     */
+    public static String testId(String className, String methodName) {
+        return className + "#" + methodName;
+    }
+
+    public static TestDurations load(Path file) {
+        TestDurations durations = new TestDurations();
+        if (!Files.isRegularFile(file)) {
+            return durations;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            System.err.println("Could not read test durations from " + file + ": " + e.getMessage());
+            return durations;
+        }
+        for (String id : properties.stringPropertyNames()) {
+            try {
+                durations.millis.put(id, Long.parseLong(properties.getProperty(id).trim()));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return durations;
+    }
+
+    public void save(Path file) {
+        Properties properties = new Properties();
+        new TreeMap<>(millis).forEach((id, value) -> properties.setProperty(id, String.valueOf(value)));
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                properties.store(writer, "Test durations in ms, used for shard balancing and test ordering");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write test durations to " + file, e);
+        }
+    }
+
+    public void record(String testId, long durationMillis) {
+        millis.merge(testId, durationMillis,
+                (previous, latest) -> Math.round(previous * (1 - NEW_WEIGHT) + latest * NEW_WEIGHT));
+    }
+
+    /**
+     * Takes the other run's value for every test, e.g. when merging shard results.
+     */
+    public void putAll(TestDurations other) {
+        millis.putAll(other.millis);
+    }
+
+    public boolean contains(String testId) {
+        return millis.containsKey(testId);
+    }
+
+    public long get(String testId, long defaultMillis) {
+        return millis.getOrDefault(testId, defaultMillis);
+    }
+
+    /**
+     * Stand-in for tests with no history; 0 when nothing is known at all.
+     */
+    public long median() {
+        long[] values = millis.values().stream().mapToLong(Long::longValue).sorted().toArray();
+        return values.length == 0 ? 0 : values[values.length / 2];
+    }
+
+    public boolean isEmpty() {
+        return millis.isEmpty();
+    }
+}
@@ -0,0 +1,256 @@
+package com.phorestdemo.stub;
+
+import com.google.gson.Gson;
+import com.phorestdemo.mail.Email;
+import com.phorestdemo.mail.SmtpSink;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process stand-in for the MailSlurp REST endpoints {@code MailSlurpBackend} calls,
+ * with an SMTP port that delivers into its inboxes:
+ *
+ * POST   /inboxes/withDefaults                   create an inbox
+ * DELETE /inboxes/{id}                           delete it
+ * DELETE /inboxes/{id}/deleteAllInboxEmails      empty it
+ * GET    /waitForLatestEmail?inboxId=&amp;timeout=   long-poll for the next unread email (408 on timeout)
+ *
+ * Selected with mailBackend=mailslurp-stub, so the inbox pool and the MailSlurp client run
+ * without network access or an API key. Counts calls per endpoint for checking pool behaviour.
+ */
+public class MailSlurpStub implements AutoCloseable {
+
+    private static final String DOMAIN = "mailslurp.test";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final SmtpSink smtp;
+    private final Map<String, Inbox> inboxes = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> calls = new ConcurrentHashMap<>();
+    private final Gson gson = new Gson();
+
+    private MailSlurpStub(int httpPort, int smtpPort) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), httpPort), 0);
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "mailslurp-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/inboxes", this::handleInboxes);
+        server.createContext("/waitForLatestEmail", this::handleWait);
+        server.start();
+        smtp = new SmtpSink(smtpPort, this::deliver);
+    }
+
+    public static MailSlurpStub start(int httpPort, int smtpPort) {
+        try {
+            return new MailSlurpStub(httpPort, smtpPort);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start MailSlurp stub on port " + httpPort, e);
+        }
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public int getSmtpPort() {
+        return smtp.getPort();
+    }
+
+    /**
+     * How many times an endpoint was called, e.g. "POST /inboxes/withDefaults".
+     */
+    public long getCalls(String endpoint) {
+        LongAdder count = calls.get(endpoint);
+        return count == null ? 0 : count.sum();
+    }
+
+    private void handleInboxes(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            noKeepAlive(exchange);
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            // "", "inboxes", id?, action?
+            if ("POST".equals(method) && path.length == 3 && "withDefaults".equals(path[2])) {
+                count("POST /inboxes/withDefaults");
+                Inbox inbox = new Inbox(UUID.randomUUID().toString());
+                inboxes.put(inbox.id, inbox);
+                sendJson(exchange, 201, inbox.toDto());
+            } else if ("DELETE".equals(method) && path.length == 3) {
+                count("DELETE /inboxes/{id}");
+                exchange.sendResponseHeaders(inboxes.remove(path[2]) != null ? 204 : 404, -1);
+            } else if ("DELETE".equals(method) && path.length == 4 && "deleteAllInboxEmails".equals(path[3])) {
+                count("DELETE /inboxes/{id}/deleteAllInboxEmails");
+                Inbox inbox = inboxes.get(path[2]);
+                if (inbox != null) {
+                    inbox.clear();
+                }
+                exchange.sendResponseHeaders(inbox != null ? 204 : 404, -1);
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+            }
+        }
+    }
+
+    private void handleWait(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            noKeepAlive(exchange);
+            count("GET /waitForLatestEmail");
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            Inbox inbox = inboxes.get(query.getOrDefault("inboxId", ""));
+            if (inbox == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            long timeout = Long.parseLong(query.getOrDefault("timeout", "0"));
+            Map<String, Object> email = inbox.awaitUnread(timeout);
+            if (email == null) {
+                exchange.sendResponseHeaders(408, -1);
+                return;
+            }
+            sendJson(exchange, 200, email);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void deliver(Email email) {
+        for (String recipient : email.getTo()) {
+            String address = recipient.toLowerCase(Locale.ROOT);
+            for (Inbox inbox : inboxes.values()) {
+                if (inbox.emailAddress.equals(address)) {
+                    inbox.add(email);
+                }
+            }
+        }
+    }
+
+    // The JDK server can drop a kept-alive connection just as a client reuses it,
+    // which surfaces as a connection reset; loopback connections are cheap to reopen
+    private static void noKeepAlive(HttpExchange exchange) {
+        exchange.getResponseHeaders().set("Connection", "close");
+    }
+
+    private void count(String endpoint) {
+        calls.computeIfAbsent(endpoint, e -> new LongAdder()).increment();
+    }
+
+    private void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(pair.substring(0, eq),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        smtp.close();
+    }
+
+    private static final class Inbox {
+        private final String id;
+        private final String emailAddress;
+        private final String createdAt = Instant.now().toString();
+        private final Deque<Map<String, Object>> unread = new ArrayDeque<>();
+
+        private Inbox(String id) {
+            this.id = id;
+            this.emailAddress = id + "@" + DOMAIN;
+        }
+
+        // Fields as in MailSlurp's InboxDto
+        private Map<String, Object> toDto() {
+            Map<String, Object> dto = new LinkedHashMap<>();
+            dto.put("id", id);
+            dto.put("userId", "00000000-0000-0000-0000-000000000000");
+            dto.put("createdAt", createdAt);
+            dto.put("emailAddress", emailAddress);
+            dto.put("favourite", false);
+            dto.put("tags", List.of());
+            dto.put("inboxType", "HTTP_INBOX");
+            dto.put("readOnly", false);
+            dto.put("virtualInbox", false);
+            return dto;
+        }
+
+        private synchronized void add(Email email) {
+            String now = Instant.now().toString();
+            Map<String, Object> dto = new LinkedHashMap<>();
+            dto.put("id", UUID.randomUUID().toString());
+            dto.put("userId", "00000000-0000-0000-0000-000000000000");
+            dto.put("inboxId", id);
+            dto.put("to", email.getTo());
+            dto.put("from", email.getFrom());
+            dto.put("subject", email.getSubject());
+            dto.put("body", email.getBody());
+            dto.put("isHTML", false);
+            dto.put("read", false);
+            dto.put("teamAccess", true);
+            dto.put("createdAt", now);
+            dto.put("updatedAt", now);
+            unread.addLast(dto);
+            notifyAll();
+        }
+
+        private synchronized void clear() {
+            unread.clear();
+        }
+
+        // Latest unread email, marked read; null if none arrives in time
+        private synchronized Map<String, Object> awaitUnread(long timeoutMillis) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeoutMillis;
+            while (unread.isEmpty()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return null;
+                }
+                wait(remaining);
+            }
+            Map<String, Object> latest = unread.pollLast();
+            latest.put("read", true);
+            return latest;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.phorestdemo.stub;
+
+/**
+ * A voucher purchase completed against the local storefront stand-in.
+ * Field names match the JSON posted by storefront.js.
+ */
+public class Purchase {
+
+    private String serial;
+    private String amount;
+    private boolean sendToMe;
+    private String purchaserEmail;
+    private String recipientEmail;
+    private String firstName;
+    private String lastName;
+    private String message;
+
+    public String getSerial() {
+        return serial;
+    }
+
+    void setSerial(String serial) {
+        this.serial = serial;
+    }
+
+    public String getAmount() {
+        return amount;
+    }
+
+    public boolean isSendToMe() {
+        return sendToMe;
+    }
+
+    public String getPurchaserEmail() {
+        return purchaserEmail;
+    }
+
+    public String getRecipientEmail() {
+        return recipientEmail;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,43 @@
+package com.phorestdemo.stub;
+
+import com.phorestdemo.mail.SmtpClient;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Sends the same emails as the real storefront for each stub purchase:
+ * a receipt to the purchaser and, when sending to someone else, the gift voucher itself.
+ */
+public class StorefrontMailer implements Consumer<Purchase> {
+
+    private static final String FROM = "no-reply@gift-cards.phorest.test";
+
+    private final SmtpClient smtp;
+
+    public StorefrontMailer(String smtpHost, int smtpPort) {
+        this.smtp = new SmtpClient(smtpHost, smtpPort);
+    }
+
+    @Override
+    public void accept(Purchase purchase) {
+        try {
+            smtp.send(FROM, purchase.getPurchaserEmail(),
+                    "Your Receipt for City Salon",
+                    "Thank you for your purchase from City Salon.\n"
+                            + "Voucher value: €" + purchase.getAmount() + "\n"
+                            + "Voucher code: " + purchase.getSerial() + "\n");
+
+            if (!purchase.isSendToMe()) {
+                smtp.send(FROM, purchase.getRecipientEmail(),
+                        "You've been sent a €" + purchase.getAmount() + " gift voucher for Demo IE!",
+                        purchase.getFirstName() + " " + purchase.getLastName()
+                                + " has sent you a €" + purchase.getAmount() + " gift voucher.\n"
+                                + "Message: " + purchase.getMessage() + "\n"
+                                + "Voucher code: " + purchase.getSerial() + "\n");
+            }
+        } catch (IOException e) {
+            System.err.println("Stub storefront could not send emails for " + purchase.getSerial() + ": " + e.getMessage());
+        }
+    }
+}
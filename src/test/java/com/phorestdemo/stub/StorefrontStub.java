@@ -0,0 +1,206 @@
+package com.phorestdemo.stub;
+
+import com.google.gson.Gson;
+import com.phorestdemo.config.ConfigReader;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * In-process stand-in for the gift-card storefront.
+ *
+ * Serves the fixtures under src/test/resources/stub/storefront with the same
+ * data-target/data-action hooks as the real site, plus a fake Stripe card iframe and
+ * payment-intent confirm endpoint, so the page objects run offline. The confirm endpoint
+ * answers after stubStripeLatency ms, like a real Stripe round trip, unless payment=stub
+ * routes it away. Enabled with storefront=stub in config.properties.
+ */
+public class StorefrontStub implements AutoCloseable {
+
+    private static final String FIXTURES = "stub/storefront/";
+    private static final String SERIAL_ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
+
+    private static volatile StorefrontStub shared;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, Fixture> fixtures = new HashMap<>();
+    private final Map<String, Purchase> purchases = new ConcurrentHashMap<>();
+    private final List<Consumer<Purchase>> purchaseListeners = new CopyOnWriteArrayList<>();
+    private final Gson gson = new Gson();
+    private final long stripeLatencyMillis = ConfigReader.getStubStripeLatency();
+
+    private StorefrontStub(int port) throws IOException {
+        fixtures.put("/", fixture("index.html", "text/html; charset=utf-8"));
+        fixtures.put("/salons/demo", fixtures.get("/"));
+        fixtures.put("/stub/storefront.js", fixture("storefront.js", "application/javascript; charset=utf-8"));
+        fixtures.put("/stripe/elements-inner-card.html", fixture("elements-inner-card.html", "text/html; charset=utf-8"));
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "storefront-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/api/purchases", this::handlePurchase);
+        server.createContext("/stripe/v1/", this::handleStripe);
+        server.createContext("/", this::handleFixture);
+        server.start();
+    }
+
+    public static StorefrontStub start(int port) {
+        try {
+            return new StorefrontStub(port);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start storefront stub on port " + port, e);
+        }
+    }
+
+    /**
+     * The suite-wide stand-in, started on first use on {@link ConfigReader#getStubPort()}.
+     */
+    public static StorefrontStub shared() {
+        if (shared == null) {
+            synchronized (StorefrontStub.class) {
+                if (shared == null) {
+                    shared = start(ConfigReader.getStubPort());
+                }
+            }
+        }
+        return shared;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getOrigin() {
+        return "http://127.0.0.1:" + getPort();
+    }
+
+    /**
+     * Drop-in replacement for {@link ConfigReader#getBaseUrl()} when running against the stub.
+     */
+    public String getBaseUrl() {
+        return getOrigin() + "/salons/demo#";
+    }
+
+    public void onPurchase(Consumer<Purchase> listener) {
+        purchaseListeners.add(listener);
+    }
+
+    public Purchase getPurchase(String serial) {
+        return purchases.get(serial);
+    }
+
+    private void handleFixture(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Fixture fixture = fixtures.get(exchange.getRequestURI().getPath());
+            if (fixture == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", fixture.contentType);
+            exchange.getResponseHeaders().set("Cache-Control", "max-age=3600");
+            send(exchange, 200, fixture.body);
+        }
+    }
+
+    private void handleStripe(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            Thread.sleep(stripeLatencyMillis);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            send(exchange, 200, StripeStub.paymentIntentJson(exchange.getRequestURI().getPath())
+                    .getBytes(StandardCharsets.UTF_8));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handlePurchase(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            Purchase purchase;
+            try (InputStreamReader reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+                purchase = gson.fromJson(reader, Purchase.class);
+            }
+            purchase.setSerial(newSerial());
+            purchases.put(purchase.getSerial(), purchase);
+
+            for (Consumer<Purchase> listener : purchaseListeners) {
+                try {
+                    listener.accept(purchase);
+                } catch (RuntimeException e) {
+                    System.err.println("Purchase listener failed: " + e.getMessage());
+                }
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            send(exchange, 200, gson.toJson(Map.of("serial", purchase.getSerial()))
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String newSerial() {
+        StringBuilder serial = new StringBuilder(8);
+        for (int i = 0; i < 8; i++) {
+            serial.append(SERIAL_ALPHABET.charAt(ThreadLocalRandom.current().nextInt(SERIAL_ALPHABET.length())));
+        }
+        return serial.toString();
+    }
+
+    private static Fixture fixture(String name, String contentType) throws IOException {
+        try (InputStream input = StorefrontStub.class.getClassLoader().getResourceAsStream(FIXTURES + name)) {
+            if (input == null) {
+                throw new IOException("Missing storefront fixture " + FIXTURES + name);
+            }
+            return new Fixture(contentType, input.readAllBytes());
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static final class Fixture {
+        private final String contentType;
+        private final byte[] body;
+
+        private Fixture(String contentType, byte[] body) {
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.phorestdemo.stub;
+
+import com.google.gson.Gson;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Route;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Canned Stripe API responses, served through context routing so no request leaves the browser.
+ *
+ * Payment intents are confirmed straight away, and payment methods are created as a test Visa
+ * card. The routes match api.stripe.com and the storefront stub's own /stripe/v1 endpoints.
+ * Anything else, including the card element iframe, is passed on.
+ */
+public final class StripeStub {
+
+    private static final Pattern PAYMENT_INTENT = Pattern.compile(".*/v1/payment_intents/(pi_[^/?]+).*");
+    private static final Gson GSON = new Gson();
+
+    private StripeStub() {
+    }
+
+    /**
+     * Installs the routes on a context. Register after other routes so these are matched first.
+     */
+    public static void route(BrowserContext context) {
+        context.route("**/v1/payment_intents/**", StripeStub::paymentIntent);
+        context.route("**/v1/payment_methods", StripeStub::paymentMethod);
+    }
+
+    private static void paymentIntent(Route route) {
+        fulfill(route, paymentIntentJson(route.request().url()));
+    }
+
+    // A succeeded payment intent, with the id taken from the request URL
+    static String paymentIntentJson(String url) {
+        Matcher matcher = PAYMENT_INTENT.matcher(url);
+        String id = matcher.matches() ? matcher.group(1) : "pi_stub";
+
+        Map<String, Object> intent = new LinkedHashMap<>();
+        intent.put("id", id);
+        intent.put("object", "payment_intent");
+        intent.put("status", "succeeded");
+        intent.put("client_secret", id + "_secret_stub");
+        intent.put("payment_method", "pm_stub_visa");
+        intent.put("currency", "eur");
+        intent.put("livemode", false);
+        return GSON.toJson(intent);
+    }
+
+    private static void paymentMethod(Route route) {
+        Map<String, Object> card = new LinkedHashMap<>();
+        card.put("brand", "visa");
+        card.put("last4", "1111");
+        card.put("exp_month", 12);
+        card.put("exp_year", 2026);
+
+        Map<String, Object> method = new LinkedHashMap<>();
+        method.put("id", "pm_stub_visa");
+        method.put("object", "payment_method");
+        method.put("type", "card");
+        method.put("card", card);
+        method.put("livemode", false);
+        fulfill(route, GSON.toJson(method));
+    }
+
+    private static void fulfill(Route route, String json) {
+        route.fulfill(new Route.FulfillOptions()
+                .setStatus(200)
+                .setContentType("application/json")
+                // Stripe.js calls the API cross-origin
+                .setHeaders(Map.of("Access-Control-Allow-Origin", "*", "Access-Control-Allow-Headers", "*"))
+                .setBody(json));
+    }
+}
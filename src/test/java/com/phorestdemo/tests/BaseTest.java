@@ -1,70 +1,206 @@
 package com.phorestdemo.tests;
 
 import com.microsoft.playwright.*;
+import com.phorestdemo.browser.BrowserPool;
+import com.phorestdemo.browser.ConcurrencyController;
+import com.phorestdemo.browser.ContextPool;
+import com.phorestdemo.browser.FailureTraces;
+import com.phorestdemo.browser.RequestRouter;
 import com.phorestdemo.config.ConfigReader;
+import com.phorestdemo.mail.EmailChecks;
+import com.phorestdemo.mail.MailBackend;
+import com.phorestdemo.metrics.PagePerformance;
+import com.phorestdemo.metrics.StepTimings;
+import com.phorestdemo.metrics.TimedPages;
+import com.phorestdemo.pages.Selector;
+import com.phorestdemo.stub.StorefrontMailer;
+import com.phorestdemo.stub.StorefrontStub;
+import com.phorestdemo.waits.AdaptiveWaits;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
 
+import java.util.OptionalInt;
+import java.util.function.Consumer;
+
+@ExtendWith({SuiteResources.class, TestOutcome.class, DurationRecorder.class})
 public abstract class BaseTest {
 
-    protected static Playwright playwright;
-    protected static Browser browser;
+    // Shared by every test class; torn down by SuiteResources when the run ends
+    private static final BrowserPool browserPool = SuiteResources.register(BrowserPool.shared());
+
+    // Registered after the browser pool, so it closes its idle contexts first
+    private static final ContextPool contextPool = SuiteResources.register(ContextPool.fromConfig());
+
+    // Reports the limit over time; a no-op unless adaptiveConcurrency=true
+    private static final ConcurrencyController concurrency = SuiteResources.register(ConcurrencyController.shared());
+
+    private static final RequestRouter requestRouter = SuiteResources.register(RequestRouter.fromConfig());
+
+    private static final FailureTraces failureTraces = SuiteResources.register(FailureTraces.fromConfig());
+
+    static {
+        if (ConfigReader.isStepTimingEnabled()) {
+            SuiteResources.register(StepTimings.shared());
+        }
+        if (ConfigReader.isPerfTimingsEnabled()) {
+            SuiteResources.register(PagePerformance.shared());
+        }
+        SuiteResources.register(AdaptiveWaits.shared());
+        if (ConfigReader.isLocatorStatsEnabled()) {
+            SuiteResources.register(() -> {
+                System.out.println("[locators] selector lookups and Locators bound");
+                System.out.print(Selector.statsTable());
+            });
+        }
+    }
+
+    // Live site, or the in-process stand-in when storefront=stub
+    protected static final String baseUrl = resolveBaseUrl();
+
+    private static MailBackend mailBackend;
 
+    private static EmailChecks emailChecks;
+
+    private BrowserSession session;
+
+    // Set by TestOutcome once the test body has run
+    boolean testFailed;
+
+    // This invocation's browser, set by BrowserMatrix for a @BrowserTest
+    String browserType = ConfigReader.getBrowserType();
+
+    protected Browser browser;
     protected BrowserContext context;
     protected Page page;
 
-    @BeforeAll
-    static void globalSetup() {
-        playwright = Playwright.create();
-
-        BrowserType browserType;
-        switch (ConfigReader.getBrowserType().toLowerCase()) {
-            case "firefox":
-                browserType = playwright.firefox();
-                break;
-            case "webkit":
-                browserType = playwright.webkit();
-                break;
-            case "chromium":
-            default:
-                browserType = playwright.chromium();
+    @BeforeEach
+    void setupTest(TestInfo testInfo) {
+        // A @TestFactory's dynamic tests open their own sessions; holding one here would pin a worker
+        if (testInfo.getTestMethod().map(m -> m.isAnnotationPresent(TestFactory.class)).orElse(false)) {
+            return;
         }
 
-        browser = browserType.launch(
-                new BrowserType.LaunchOptions()
-                        .setHeadless(ConfigReader.isHeadless())
-        );
+        session = openSession(testInfo.getTestClass().map(Class::getSimpleName).orElse("")
+                + "." + testInfo.getDisplayName());
+        browser = session.getBrowser();
+        context = session.getContext();
+        page = session.getPage();
     }
 
-    @BeforeEach
-    void setupTest() {
-        context = browser.newContext();
-        page = context.newPage();
-        page.setDefaultTimeout(ConfigReader.getDefaultTimeout());
+    /**
+     * A browser context and page of its own, for tests that run more than one flow,
+     * such as dynamic tests. Close it with {@link BrowserSession#close(boolean)}.
+     */
+    protected BrowserSession openSession(String name) {
+        return openSession(name, browserType);
     }
 
-    @AfterEach
-    void teardownTest() {
-        if (context != null) {
-            context.close();
-        }
+    protected BrowserSession openSession(String name, String browserType) {
+        return new BrowserSession(browserPool, contextPool, concurrency, requestRouter, failureTraces, baseUrl,
+                browserType, name);
     }
 
-    @AfterAll
-    static void globalTeardown() {
+    /**
+     * Runs a flow in its own session, closing it afterwards whether or not the flow passed.
+     */
+    protected void inSession(String name, Consumer<BrowserSession> flow) {
+        inSession(name, browserType, flow);
+    }
+
+    protected void inSession(String name, String browserType, Consumer<BrowserSession> flow) {
+        BrowserSession flowSession = openSession(name, browserType);
+        boolean failed = true;
         try {
-            if (browser != null) {
-                browser.close();
+            flow.accept(flowSession);
+            failed = false;
+        } finally {
+            flowSession.close(failed);
+            BrowserMatrix.record(browserType, failed);
+        }
+    }
+
+    /**
+     * Page object bound to this test's page and base URL. Its public actions are timed
+     * into StepTimings unless stepTimings=false, and its @PerfStep actions read the
+     * browser's timings when perfTimings=true. With adaptiveConcurrency=true every action's
+     * duration also feeds the ConcurrencyController.
+     */
+    protected <T> T pageObject(Class<T> type) {
+        return pageObject(type, page);
+    }
+
+    protected <T> T pageObject(Class<T> type, Page page) {
+        if (ConfigReader.isStepTimingEnabled() || ConfigReader.isPerfTimingsEnabled()
+                || ConfigReader.isAdaptiveConcurrencyEnabled()) {
+            return TimedPages.create(type, page, baseUrl);
+        }
+        return TimedPages.createUntimed(type, page, baseUrl);
+    }
+
+    private static String resolveBaseUrl() {
+        if (ConfigReader.useLocalStorefront()) {
+            return SuiteResources.register(StorefrontStub.shared()).getBaseUrl();
+        }
+        return ConfigReader.getBaseUrl();
+    }
+
+    /**
+     * Suite-wide mail backend, created on first use so tests without email checks
+     * don't need MailSlurp credentials. With the stub storefront and a backend that has
+     * its own SMTP port (local, mailslurp-stub), stub purchases are mailed straight into it.
+     */
+    protected static synchronized MailBackend mailBackend() {
+        if (mailBackend == null) {
+            mailBackend = SuiteResources.register(MailBackend.fromConfig());
+            OptionalInt smtpPort = mailBackend.localSmtpPort();
+            if (smtpPort.isPresent() && ConfigReader.useLocalStorefront()) {
+                StorefrontStub.shared().onPurchase(new StorefrontMailer("127.0.0.1", smtpPort.getAsInt()));
             }
-        } catch (Exception e) {
-            System.err.println("Browser already closed");
         }
+        return mailBackend;
+    }
+
+    /**
+     * Deferred email assertions on the suite's mail backend. Join them from @AfterAll.
+     */
+    protected static synchronized EmailChecks emailChecks() {
+        if (emailChecks == null) {
+            emailChecks = SuiteResources.register(new EmailChecks(mailBackend(), ConfigReader.getEmailTimeout()));
+        }
+        return emailChecks;
+    }
 
+    /**
+     * Waits for the deferred email checks of tests whose name starts with the prefix and fails
+     * if any of them did. Does nothing if no test has used emailChecks().
+     */
+    protected static void joinEmailChecks(String ownerPrefix) {
+        EmailChecks checks;
+        synchronized (BaseTest.class) {
+            checks = emailChecks;
+        }
+        if (checks != null) {
+            checks.join(ownerPrefix);
+        }
+    }
+
+    @AfterEach
+    void teardownTest(TestInfo testInfo, TestReporter reporter) {
+        if (session == null) {
+            return;
+        }
+        // Before closing, so a perfGate failure keeps the trace and the context isn't reused
+        AssertionError overBudget = null;
         try {
-            if (playwright != null) {
-                playwright.close();
-            }
-        } catch (Exception e) {
-            System.err.println("Playwright already closed");
+            overBudget = PerfReport.check(testInfo.getDisplayName(), page, reporter, testFailed);
+            testFailed |= overBudget != null;
+        } finally {
+            session.close(testFailed);
+            BrowserMatrix.record(browserType, testFailed);
+            session = null;
+        }
+        if (overBudget != null) {
+            throw overBudget;
         }
     }
 }
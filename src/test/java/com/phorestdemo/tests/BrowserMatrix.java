@@ -0,0 +1,102 @@
+package com.phorestdemo.tests;
+
+import com.phorestdemo.config.ConfigReader;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.Extension;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.TestTemplateInvocationContext;
+import org.junit.jupiter.api.extension.TestTemplateInvocationContextProvider;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Fans each {@link BrowserTest} out into one invocation per browser in browserMatrix. The
+ * invocations are ordinary tests to JUnit, so they run concurrently on the parallel workers and
+ * lease workers of their own browser from the shared BrowserPool.
+ *
+ * With more than one browser every result is labelled with its browser, e.g.
+ * "sendToMeTest() [firefox]"; with one, names stay as they were. The run then ends with the
+ * passed and failed sessions per browser; StepTimings compares the browsers' step latencies.
+ */
+public class BrowserMatrix implements TestTemplateInvocationContextProvider {
+
+    // Browser -> {passed, failed}
+    private static final Map<String, LongAdder[]> RESULTS = new ConcurrentHashMap<>();
+
+    static {
+        SuiteResources.register(BrowserMatrix::report);
+    }
+
+    static List<String> browsers() {
+        return ConfigReader.getBrowserMatrix();
+    }
+
+    /**
+     * The name with its browser appended, when the run covers more than one browser.
+     */
+    static String label(String name, String browserType) {
+        return browsers().size() > 1 ? name + " [" + browserType + "]" : name;
+    }
+
+    /**
+     * Counts a finished session towards its browser's results.
+     */
+    static void record(String browserType, boolean failed) {
+        RESULTS.computeIfAbsent(browserType, browser -> new LongAdder[]{new LongAdder(), new LongAdder()})
+                [failed ? 1 : 0].increment();
+    }
+
+    private static void report() {
+        if (RESULTS.size() < 2) {
+            return;
+        }
+        StringBuilder line = new StringBuilder();
+        new TreeMap<>(RESULTS).forEach((browser, counts) -> line.append(line.length() == 0 ? "" : "; ")
+                .append(browser).append(' ').append(counts[0].sum()).append(" passed, ")
+                .append(counts[1].sum()).append(" failed"));
+        System.out.println("[matrix] " + line);
+    }
+
+    @Override
+    public boolean supportsTestTemplate(ExtensionContext context) {
+        return context.getTestMethod().map(method -> method.isAnnotationPresent(BrowserTest.class)).orElse(false);
+    }
+
+    @Override
+    public Stream<TestTemplateInvocationContext> provideTestTemplateInvocationContexts(ExtensionContext context) {
+        String name = context.getDisplayName();
+        return browsers().stream().map(browserType -> new TestTemplateInvocationContext() {
+            @Override
+            public String getDisplayName(int invocationIndex) {
+                return label(name, browserType);
+            }
+
+            @Override
+            public List<Extension> getAdditionalExtensions() {
+                return List.of(new Browser(browserType));
+            }
+        });
+    }
+
+    // Runs before BaseTest's @BeforeEach, which opens the session on this browser
+    private static final class Browser implements BeforeEachCallback {
+        private final String browserType;
+
+        private Browser(String browserType) {
+            this.browserType = browserType;
+        }
+
+        @Override
+        public void beforeEach(ExtensionContext context) {
+            context.getTestInstance()
+                    .filter(BaseTest.class::isInstance)
+                    .map(BaseTest.class::cast)
+                    .ifPresent(test -> test.browserType = browserType);
+        }
+    }
+}
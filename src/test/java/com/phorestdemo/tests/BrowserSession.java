@@ -0,0 +1,142 @@
+package com.phorestdemo.tests;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import com.phorestdemo.browser.BrowserPool;
+import com.phorestdemo.browser.BrowserWorker;
+import com.phorestdemo.browser.ConcurrencyController;
+import com.phorestdemo.browser.ContextPool;
+import com.phorestdemo.browser.FailureTraces;
+import com.phorestdemo.browser.NetworkStats;
+import com.phorestdemo.browser.RequestRouter;
+import com.phorestdemo.browser.WarmStart;
+import com.phorestdemo.config.ConfigReader;
+import com.phorestdemo.metrics.PagePerformance;
+import com.phorestdemo.payment.PaymentStrategy;
+
+/**
+ * Everything one test holds while it runs: a leased browser worker of the test's browser type,
+ * a context (fresh, or the worker's reset one with contextReuse=true) with the suite's warm-start,
+ * routing and failure tracing applied, and a page. With adaptiveConcurrency=true it first waits for a permit from the
+ * ConcurrencyController, held until the session closes.
+ *
+ * BaseTest opens one around every @Test and @BrowserTest; dynamic tests open their own.
+ */
+public class BrowserSession {
+
+    private final BrowserPool browserPool;
+    private final ContextPool contextPool;
+    private final ConcurrencyController concurrency;
+    private final RequestRouter requestRouter;
+    private final FailureTraces failureTraces;
+    private final String name;
+
+    private BrowserWorker worker;
+    private WarmStart warmStart;
+    private NetworkStats networkStats;
+    private ContextPool.Lease lease;
+    private BrowserContext context;
+    private Page page;
+
+    BrowserSession(BrowserPool browserPool, ContextPool contextPool, ConcurrencyController concurrency,
+                   RequestRouter requestRouter, FailureTraces failureTraces, String baseUrl, String browserType,
+                   String name) {
+        this.browserPool = browserPool;
+        this.contextPool = contextPool;
+        this.concurrency = concurrency;
+        this.requestRouter = requestRouter;
+        this.failureTraces = failureTraces;
+        this.name = name;
+
+        concurrency.acquire();
+        try {
+            worker = browserPool.lease(browserType);
+        } catch (RuntimeException e) {
+            concurrency.release();
+            throw e;
+        }
+        try {
+            Browser browser = worker.getBrowser();
+            if (ConfigReader.isWarmStartEnabled()) {
+                warmStart = worker.getWarmStart(baseUrl);
+                context = browser.newContext(warmStart.newContextOptions());
+                warmStart.onContextCreated(context);
+            } else if (contextPool.isEnabled()) {
+                lease = contextPool.acquire(worker);
+                context = lease.getContext();
+            } else {
+                context = browser.newContext();
+            }
+            if (failureTraces.isEnabled()) {
+                failureTraces.start(context, name);
+            }
+            // Init scripts stay with a reused context
+            if (ConfigReader.isPerfTimingsEnabled() && (lease == null || lease.isFresh())) {
+                PagePerformance.shared().install(context);
+            }
+            if (requestRouter.isEnabled()) {
+                networkStats = requestRouter.attach(context);
+            }
+            // After the router's routes, so a stubbed payment's Stripe routes are matched first
+            PaymentStrategy.fromConfig().prepare(context);
+            page = context.newPage();
+            page.setDefaultTimeout(ConfigReader.getDefaultTimeout());
+        } catch (RuntimeException e) {
+            close(true);
+            throw e;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Browser getBrowser() {
+        return worker.getBrowser();
+    }
+
+    public BrowserContext getContext() {
+        return context;
+    }
+
+    public Page getPage() {
+        return page;
+    }
+
+    /**
+     * Closes the context (or hands it back to the context pool), hands the worker back and
+     * frees the concurrency permit.
+     * Safe to call more than once.
+     */
+    public void close(boolean testFailed) {
+        if (worker == null) {
+            return;
+        }
+        try {
+            if (context != null) {
+                failureTraces.finish(context, name, testFailed);
+                if (warmStart != null) {
+                    warmStart.beforeContextClose(context, testFailed);
+                }
+                if (lease != null) {
+                    requestRouter.detach(context, networkStats);
+                    contextPool.release(worker, lease, testFailed);
+                } else {
+                    context.close();
+                }
+                if (warmStart != null) {
+                    warmStart.afterContextClose();
+                }
+            }
+            requestRouter.finish(name, networkStats);
+        } finally {
+            browserPool.release(worker);
+            concurrency.release();
+            worker = null;
+            lease = null;
+            context = null;
+            page = null;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.phorestdemo.tests;
+
+import org.junit.jupiter.api.TestTemplate;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * A UI test, run once per browser in browserMatrix (only browserType by default).
+ * Use instead of @Test in {@link BaseTest} subclasses; see {@link BrowserMatrix}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@TestTemplate
+@ExtendWith(BrowserMatrix.class)
+public @interface BrowserTest {
+}
@@ -0,0 +1,100 @@
+package com.phorestdemo.tests;
+
+import com.phorestdemo.config.ConfigReader;
+import com.phorestdemo.sharding.Makespan;
+import com.phorestdemo.sharding.TestDurations;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures each test including its @BeforeEach/@AfterEach (browser session setup and teardown)
+ * and writes the durations to testDurationsOut when the run ends, for the timing shard strategy
+ * and LongestFirstOrderer. Both schedule test methods, so the browserMatrix invocations of a
+ * @BrowserTest are added up into one duration for the method.
+ *
+ * Also prints the makespan predicted from previous durations next to the actual one,
+ * to show how well the longest-first order packed the workers.
+ */
+public class DurationRecorder implements BeforeEachCallback, AfterEachCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(DurationRecorder.class);
+
+    private static final Path OUTPUT = Paths.get(ConfigReader.getTestDurationsOut());
+
+    // Starts from the previous durations so tests outside this shard keep their history
+    private static final TestDurations DURATIONS =
+            TestDurations.load(Paths.get(ConfigReader.getTestDurations()));
+
+    private static final Set<String> EXECUTED = ConcurrentHashMap.newKeySet();
+    private static final Set<String> FAILED = ConcurrentHashMap.newKeySet();
+    private static final Map<String, Long> RUN_MILLIS = new ConcurrentHashMap<>();
+    private static final AtomicLong FIRST_START = new AtomicLong(Long.MAX_VALUE);
+    private static final AtomicLong LAST_END = new AtomicLong(Long.MIN_VALUE);
+
+    static {
+        SuiteResources.register(DurationRecorder::finish);
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        long now = System.nanoTime();
+        FIRST_START.accumulateAndGet(now, Math::min);
+        context.getStore(NAMESPACE).put("start", now);
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        long now = System.nanoTime();
+        LAST_END.accumulateAndGet(now, Math::max);
+
+        Long start = context.getStore(NAMESPACE).remove("start", Long.class);
+        String testId = TestDurations.testId(
+                context.getRequiredTestClass().getName(), context.getRequiredTestMethod().getName());
+        EXECUTED.add(testId);
+        if (start == null || context.getExecutionException().isPresent()) {
+            FAILED.add(testId);
+            return;
+        }
+        RUN_MILLIS.merge(testId, (now - start) / 1_000_000, Long::sum);
+    }
+
+    private static void finish() {
+        if (EXECUTED.isEmpty()) {
+            return;
+        }
+        // A method with a failed invocation only has part of its time
+        RUN_MILLIS.forEach((testId, millis) -> {
+            if (!FAILED.contains(testId)) {
+                DURATIONS.record(testId, millis);
+            }
+        });
+        DURATIONS.save(OUTPUT);
+
+        double actual = (LAST_END.get() - FIRST_START.get()) / 1e9;
+        TestDurations history = TestDurations.history();
+        if (history.isEmpty()) {
+            System.out.printf(Locale.ROOT, "[schedule] makespan %.1f s (no durations from earlier runs to predict from)%n",
+                    actual);
+            return;
+        }
+        List<Long> expected = new ArrayList<>();
+        for (String testId : EXECUTED) {
+            expected.add(history.get(testId, history.median()));
+        }
+        int workers = ConfigReader.getWorkerPoolSize();
+        System.out.printf(Locale.ROOT, "[schedule] %d tests on %d workers: predicted makespan %.1f s, actual %.1f s%n",
+                EXECUTED.size(), workers, Makespan.longestFirst(expected, workers) / 1000.0, actual);
+    }
+}
@@ -0,0 +1,88 @@
+package com.phorestdemo.tests;
+
+import com.phorestdemo.config.ConfigReader;
+import com.phorestdemo.pages.ReceiptPage;
+import com.phorestdemo.pages.SummaryPage;
+import com.phorestdemo.pages.SummarySnapshot;
+import com.phorestdemo.pages.VoucherFormSnapshot;
+import com.phorestdemo.pages.VoucherPage;
+import com.phorestdemo.scenarios.ScenarioGenerator;
+import com.phorestdemo.scenarios.ScenarioShard;
+import com.phorestdemo.scenarios.VoucherScenario;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestFactory;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * High-volume purchase permutations from {@link ScenarioGenerator}.
+ *
+ * Scenarios are streamed lazily into dynamic tests, each with its own browser session,
+ * so they spread over the parallel workers. -DshardIndex/-DshardTotal pick this node's
+ * index range; -DscenarioCount and -DscenarioSeed size and replay the run. With
+ * -DfastForward=true the voucher form is seeded in one step, since VoucherTests already
+ * cover filling it in field by field. Each scenario runs once per browser in browserMatrix.
+ */
+public class GeneratedVoucherTests extends BaseTest {
+
+    @TestFactory
+    @Tag("GeneratedUITests")
+    Stream<DynamicTest> generatedPurchases() {
+        ScenarioGenerator generator = new ScenarioGenerator(
+                ConfigReader.getScenarioSeed(), ConfigReader.getScenarioPresetAmounts());
+        ScenarioShard shard = ScenarioShard.fromConfig();
+        System.out.println("Generated scenarios " + shard + " of " + ConfigReader.getScenarioCount()
+                + ", seed " + generator.getSeed());
+
+        return generator.stream(shard.getFrom(), shard.getTo())
+                .flatMap(scenario -> BrowserMatrix.browsers().stream().map(browserType -> {
+                    String name = BrowserMatrix.label(scenario.getDisplayName(), browserType);
+                    return DynamicTest.dynamicTest(name, () -> inSession("GeneratedVoucherTests." + name, browserType,
+                            session -> purchase(scenario, session)));
+                }));
+    }
+
+    private void purchase(VoucherScenario scenario, BrowserSession session) {
+        VoucherPage voucherPage = pageObject(VoucherPage.class, session.getPage());
+        SummaryPage summaryPage = pageObject(SummaryPage.class, session.getPage());
+        ReceiptPage receiptPage = pageObject(ReceiptPage.class, session.getPage());
+        String amount = scenario.getExpectedAmount();
+
+        voucherPage.navigate();
+        voucherPage.fill(scenario.toForm());
+        VoucherFormSnapshot form = voucherPage.snapshot();
+        assertEquals(amount, form.totalCost());
+        assertEquals(amount, form.voucherIconAmount());
+        voucherPage.clickCheckoutButton();
+
+        summaryPage.clickConfirmDetailsButton();
+        SummarySnapshot summary = summaryPage.snapshot();
+        assertEquals(amount, summary.totalCost());
+        assertEquals(scenario.getPurchaserEmail(), summary.senderEmail());
+        assertEquals(scenario.getRecipientEmail(), summary.recipientEmail());
+
+        String purchaserEmail = scenario.getPurchaserEmail();
+        for (int edit = 1; edit <= scenario.getEditLoops(); edit++) {
+            summaryPage.clickEditButton();
+            VoucherFormSnapshot edited = voucherPage.snapshot();
+            assertEquals(amount, edited.totalCost());
+            assertEquals(purchaserEmail, edited.purchaserEmail());
+            assertEquals(scenario.getFirstName(), edited.firstName());
+            assertEquals(scenario.getLastName(), edited.lastName());
+
+            purchaserEmail = "edit" + edit + "-" + scenario.getPurchaserEmail();
+            voucherPage.fillPurchaserEmailInputBox(purchaserEmail);
+            voucherPage.clickCheckoutButton();
+            assertEquals(purchaserEmail, summaryPage.getSenderEmailText());
+            summaryPage.clickConfirmDetailsButton();
+        }
+
+        summaryPage.enterPaymentDetails("4111 1111 1111 1111", "12/26", "999");
+        summaryPage.clickPayButton();
+
+        assertNotNull(receiptPage.getVoucherCode(), "Voucher code should be visible on receipt page");
+    }
+}
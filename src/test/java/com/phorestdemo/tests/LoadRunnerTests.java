@@ -0,0 +1,61 @@
+package com.phorestdemo.tests;
+
+import com.phorestdemo.config.ConfigReader;
+import com.phorestdemo.load.LoadProfile;
+import com.phorestdemo.load.LoadRunner;
+import com.phorestdemo.load.LoadStats;
+import com.phorestdemo.scenarios.ScenarioGenerator;
+import com.phorestdemo.stub.StorefrontStub;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Short load runs against the in-process storefront, to check the load runner itself:
+ * mvn test -Dtest.groups=LoadTests
+ */
+public class LoadRunnerTests {
+
+    private static StorefrontStub storefront;
+
+    @BeforeAll
+    static void startStorefront() {
+        storefront = StorefrontStub.start(0);
+    }
+
+    @AfterAll
+    static void stopStorefront() {
+        storefront.close();
+    }
+
+    @Test
+    @Tag("LoadTests")
+    void closedLoopAgainstStub() {
+        LoadStats stats = run(new LoadProfile(2, 2_000, 8_000, 0, 2_000));
+
+        assertEquals(0, stats.getErrors(), "Purchases against the stub should not fail");
+        assertTrue(stats.getCompleted() >= 2, "Each user should complete purchases, got " + stats.getCompleted());
+        assertEquals(stats.getArrivals(), stats.getCompleted() + stats.getErrors());
+    }
+
+    @Test
+    @Tag("LoadTests")
+    void arrivalRateAgainstStub() {
+        LoadStats stats = run(new LoadProfile(2, 2_000, 8_000, 0.5, 2_000));
+
+        // 0.5/s ramped over 2 s then held for 8 s: 0.5 + 4 scheduled purchases
+        assertEquals(4, stats.getArrivals());
+        assertEquals(0, stats.getErrors(), "Purchases against the stub should not fail");
+        assertEquals(stats.getArrivals(), stats.getCompleted() + stats.getUnserved());
+        assertTrue(stats.getThroughput() > 0);
+    }
+
+    private static LoadStats run(LoadProfile profile) {
+        return new LoadRunner(storefront.getBaseUrl(), profile,
+                new ScenarioGenerator(ConfigReader.getScenarioSeed(), ConfigReader.getScenarioPresetAmounts()))
+                .run();
+    }
+}
@@ -0,0 +1,51 @@
+package com.phorestdemo.tests;
+
+import com.microsoft.playwright.Page;
+import com.phorestdemo.config.ConfigReader;
+import com.phorestdemo.metrics.PagePerformance;
+import com.phorestdemo.metrics.PerfSample;
+import org.junit.jupiter.api.TestReporter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Attaches the browser timings of a test's steps to its result as report entries
+ * (perf.VoucherPage.navigate = "step 812, ttfb 95, ..."), and checks them against perfBudgets.
+ * Budget breaches are printed, or fail the test with perfGate=true.
+ *
+ * Called from {@link BaseTest}'s teardown before the session closes, so a gated breach counts
+ * as a failure there too: the trace is kept, the context isn't reused and the browser tally
+ * records a failure.
+ */
+final class PerfReport {
+
+    private PerfReport() {
+    }
+
+    /**
+     * The gate failure for this test's samples, or null if it passes the gate (or the test
+     * already failed, which is the failure worth reporting).
+     */
+    static AssertionError check(String testName, Page page, TestReporter reporter, boolean testFailed) {
+        if (!ConfigReader.isPerfTimingsEnabled() || page == null) {
+            return null;
+        }
+
+        PagePerformance performance = PagePerformance.shared();
+        List<String> breaches = new ArrayList<>();
+        for (PerfSample sample : performance.drain(page)) {
+            reporter.publishEntry("perf." + sample.step(), sample.toString());
+            breaches.addAll(performance.overBudget(sample));
+        }
+        if (breaches.isEmpty()) {
+            return null;
+        }
+        String message = testName + " over performance budget: " + String.join("; ", breaches);
+        if (ConfigReader.isPerfGateEnabled() && !testFailed) {
+            return new AssertionError(message);
+        }
+        System.out.println("[perf] " + message);
+        return null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.phorestdemo.tests;
+
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Closes suite-wide resources (browser pool, servers, reports) once the whole
+ * JUnit run has finished, rather than after each test class.
+ *
+ * Resources are closed in reverse order of registration.
+ */
+public class SuiteResources implements BeforeAllCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(SuiteResources.class);
+
+    private static final Deque<AutoCloseable> RESOURCES = new ConcurrentLinkedDeque<>();
+
+    public static <T extends AutoCloseable> T register(T resource) {
+        RESOURCES.push(resource);
+        return resource;
+    }
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        // The root store is closed when the run ends, which triggers closeAll()
+        context.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(
+                SuiteResources.class,
+                key -> (ExtensionContext.Store.CloseableResource) SuiteResources::closeAll,
+                ExtensionContext.Store.CloseableResource.class);
+    }
+
+    private static void closeAll() {
+        AutoCloseable resource;
+        while ((resource = RESOURCES.poll()) != null) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                System.err.println("Failed to close " + resource + ": " + e.getMessage());
+            }
+        }
+    }
+}
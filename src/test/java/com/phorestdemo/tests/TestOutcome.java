@@ -0,0 +1,18 @@
+package com.phorestdemo.tests;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Tells {@link BaseTest} whether the test body failed, before its @AfterEach teardown runs.
+ */
+public class TestOutcome implements AfterTestExecutionCallback {
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        context.getTestInstance()
+                .filter(BaseTest.class::isInstance)
+                .map(BaseTest.class::cast)
+                .ifPresent(test -> test.testFailed = context.getExecutionException().isPresent());
+    }
+}
@@ -0,0 +1,167 @@
+package com.phorestdemo.waits;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.Locator;
+import com.microsoft.playwright.TimeoutError;
+import com.microsoft.playwright.options.WaitForSelectorState;
+import com.phorestdemo.config.ConfigReader;
+import com.phorestdemo.metrics.LatencyHistory;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Element waits whose timeout is learned from earlier runs instead of a fixed 30 s.
+ *
+ * Each wait is keyed by the browser type, the site origin and a selector name. Once a key has waitMinSamples
+ * successful waits on record, its timeout becomes the waitPercentile latency x 1.5 plus
+ * waitMargin, capped at waitCeiling. A page that is far slower than its history then fails
+ * within seconds, with the history in the message. Keys without enough history wait the full
+ * ceiling and record how long they took.
+ *
+ * Off unless adaptiveWaits=true; every wait then uses the ceiling. When on, history is saved to
+ * waitHistory at the end of the run, and every key's decision is printed.
+ */
+public class AdaptiveWaits implements AutoCloseable {
+
+    private static final double PERCENTILE_FACTOR = 1.5;
+
+    private static volatile AdaptiveWaits shared;
+
+    private final boolean enabled;
+    private final LatencyHistory history;
+    private final Path historyFile;
+    private final double percentile;
+    private final long margin;
+    private final long ceiling;
+    private final int minSamples;
+    private final Map<String, Decisions> decisions = new ConcurrentHashMap<>();
+
+    public AdaptiveWaits(boolean enabled, Path historyFile, double percentile, long margin, long ceiling,
+                         int minSamples) {
+        this.enabled = enabled;
+        this.historyFile = historyFile;
+        this.history = LatencyHistory.load(historyFile, 200);
+        this.percentile = percentile;
+        this.margin = margin;
+        this.ceiling = ceiling;
+        this.minSamples = minSamples;
+    }
+
+    public static AdaptiveWaits shared() {
+        if (shared == null) {
+            synchronized (AdaptiveWaits.class) {
+                if (shared == null) {
+                    shared = new AdaptiveWaits(
+                            ConfigReader.isAdaptiveWaitsEnabled(),
+                            Paths.get(ConfigReader.getWaitHistory()),
+                            ConfigReader.getWaitPercentile(),
+                            ConfigReader.getWaitMargin(),
+                            ConfigReader.getWaitCeiling(),
+                            ConfigReader.getWaitMinSamples());
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Timeout for the next wait on this key: learned once there's enough history, else the ceiling.
+     */
+    public long timeoutFor(String key) {
+        if (!enabled || history.count(key) < minSamples) {
+            return ceiling;
+        }
+        long learned = (long) Math.ceil(history.percentile(key, percentile) * PERCENTILE_FACTOR) + margin;
+        return Math.min(ceiling, learned);
+    }
+
+    /**
+     * Waits for the locator to reach the state, with the learned timeout for this selector on the current site.
+     */
+    public void waitFor(Locator locator, WaitForSelectorState state, String selectorName) {
+        String key = browserOf(locator) + " " + originOf(locator.page().url()) + " " + selectorName;
+        long timeout = timeoutFor(key);
+        Decisions decision = decisions.computeIfAbsent(key, k -> new Decisions());
+        decision.lastTimeout.set(timeout);
+        decision.waits.increment();
+
+        long start = System.nanoTime();
+        try {
+            locator.waitFor(new Locator.WaitForOptions().setState(state).setTimeout(timeout));
+        } catch (TimeoutError e) {
+            decision.timeouts.increment();
+            if (timeout < ceiling) {
+                throw new TimeoutError(String.format(Locale.ROOT,
+                        "%s not %s within %d ms; p%.0f of its last %d waits is %d ms, so failing fast"
+                                + " (adaptiveWaits=false waits the full %d ms)",
+                        key, state.name().toLowerCase(Locale.ROOT), timeout, percentile, history.count(key),
+                        history.percentile(key, percentile), ceiling), e);
+            }
+            throw e;
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        decision.slowest.accumulateAndGet(millis, Math::max);
+        if (enabled) {
+            history.record(key, millis);
+        }
+    }
+
+    // Browsers render at different speeds, so each learns its own timeouts
+    static String browserOf(Locator locator) {
+        Browser browser = locator.page().context().browser();
+        return browser == null ? "unknown" : browser.browserType().name();
+    }
+
+    // scheme://host:port of the page, so the stub and the live site learn separately
+    static String originOf(String url) {
+        try {
+            URI uri = URI.create(url);
+            if (uri.getHost() == null) {
+                return uri.getScheme() + ":";
+            }
+            return uri.getScheme() + "://" + uri.getHost() + (uri.getPort() > 0 ? ":" + uri.getPort() : "");
+        } catch (IllegalArgumentException e) {
+            return "unknown";
+        }
+    }
+
+    public String table() {
+        List<String> keys = new ArrayList<>(decisions.keySet());
+        keys.sort(null);
+        StringBuilder table = new StringBuilder(String.format(Locale.ROOT, "%-60s %7s %9s %10s %6s %9s %9s%n",
+                "wait", "history", "p" + (int) percentile + " ms", "timeout ms", "waits", "timeouts", "max ms"));
+        for (String key : keys) {
+            Decisions decision = decisions.get(key);
+            table.append(String.format(Locale.ROOT, "%-60s %7d %9d %10d %6d %9d %9d%n",
+                    key, history.count(key), history.percentile(key, percentile), decision.lastTimeout.get(),
+                    decision.waits.sum(), decision.timeouts.sum(), decision.slowest.get()));
+        }
+        return table.toString();
+    }
+
+    @Override
+    public void close() {
+        if (!enabled || decisions.isEmpty()) {
+            return;
+        }
+        System.out.println("[waits] learned element waits");
+        System.out.print(table());
+        history.save(historyFile);
+    }
+
+    private static final class Decisions {
+        private final LongAdder waits = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final AtomicLong lastTimeout = new AtomicLong();
+        private final AtomicLong slowest = new AtomicLong();
+    }
+}
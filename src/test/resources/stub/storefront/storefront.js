@@ -0,0 +1,132 @@
+// Minimal behaviour for the local storefront stand-in.
+// Mirrors what the page objects observe on the real site: screen changes,
+// amount/total updates and a purchase round trip that returns a voucher serial.
+(function () {
+    'use strict';
+
+    const $ = (selector) => document.querySelector(selector);
+
+    const screens = {
+        voucher: $('#voucher-screen'),
+        summary: $('#summary-screen'),
+        receipt: $('#receipt-screen')
+    };
+
+    const fields = {
+        otherInput: $("input[data-target='amount.otherInput']"),
+        purchaserEmail: $("input[data-target='email.purchaserEmailInput']"),
+        recipientEmail: $("input[data-target='email.recipientEmailInput']"),
+        message: $("textarea[data-target='email.recipientMessageInput']"),
+        firstName: $("input[data-target='name.purchaserFirstNameInput']"),
+        lastName: $("input[data-target='name.purchaserLastNameInput']")
+    };
+
+    let sendToMe = false;
+
+    function show(name) {
+        Object.keys(screens).forEach((key) => { screens[key].hidden = key !== name; });
+    }
+
+    function selectedAmount() {
+        const checked = $("input[type='radio'][name='amount']:checked");
+        if (!checked) {
+            return 0;
+        }
+        if (checked.id === 'optionOther') {
+            return parseFloat(fields.otherInput.value) || 0;
+        }
+        return parseFloat(checked.dataset.voucherValue);
+    }
+
+    function refreshAmount() {
+        const amount = selectedAmount();
+        $("span[data-target='checkout.totalCost']").textContent = '€' + amount.toFixed(2);
+        $('#voucher-value-text').textContent = '€' + Math.trunc(amount);
+    }
+
+    function recipientEmail() {
+        return sendToMe ? fields.purchaserEmail.value : fields.recipientEmail.value;
+    }
+
+    document.querySelectorAll("input[type='radio'][name='amount']").forEach((radio) => {
+        radio.addEventListener('change', () => {
+            fields.otherInput.hidden = radio.id !== 'optionOther' || !radio.checked;
+            refreshAmount();
+        });
+    });
+    fields.otherInput.addEventListener('input', refreshAmount);
+
+    $("a[data-action='tabs#showSendToMe']").addEventListener('click', (event) => {
+        event.preventDefault();
+        sendToMe = true;
+        $('#recipient-fields').hidden = true;
+    });
+    $("a[data-action='tabs#showSendToOther']").addEventListener('click', (event) => {
+        event.preventDefault();
+        sendToMe = false;
+        $('#recipient-fields').hidden = false;
+    });
+
+    $("button[data-target='checkout.checkoutButton']").addEventListener('click', () => {
+        const amount = '€' + selectedAmount().toFixed(2);
+        $('#confirm-voucher-value').textContent = amount;
+        $('#confirm-total-amount').textContent = amount;
+        $('#confirm-purchaser-email').textContent = fields.purchaserEmail.value;
+        $('#confirm-recipient-email').textContent = recipientEmail();
+        $('#payment-section').hidden = true;
+        show('summary');
+    });
+
+    $("button[data-action='confirm#confirmAction']").addEventListener('click', () => {
+        $('#payment-section').hidden = false;
+    });
+
+    $("button[data-action='click->confirm#editAction']").addEventListener('click', () => {
+        show('voucher');
+    });
+
+    $("button[data-action='stripe-purchase#confirmPayment']").addEventListener('click', async () => {
+        const card = $("iframe[src*='elements-inner-card']").contentDocument;
+        const cardNumber = card.querySelector("input[name='cardnumber']").value;
+        if (!cardNumber) {
+            $('#payment-error').textContent = 'Your card number is incomplete.';
+            return;
+        }
+
+        // Confirm the payment intent the way Stripe.js does before the storefront records the purchase
+        const intentId = 'pi_local_' + Math.random().toString(36).slice(2, 12);
+        const confirmation = await fetch('/stripe/v1/payment_intents/' + intentId + '/confirm', {
+            method: 'POST',
+            headers: { 'Content-Type': 'application/x-www-form-urlencoded' },
+            body: new URLSearchParams({ 'payment_method_data[type]': 'card' })
+        });
+        const intent = await confirmation.json();
+        if (intent.status !== 'succeeded') {
+            $('#payment-error').textContent = 'Your payment could not be confirmed.';
+            return;
+        }
+
+        const response = await fetch('/api/purchases', {
+            method: 'POST',
+            headers: { 'Content-Type': 'application/json' },
+            body: JSON.stringify({
+                amount: selectedAmount().toFixed(2),
+                sendToMe: sendToMe,
+                purchaserEmail: fields.purchaserEmail.value,
+                recipientEmail: recipientEmail(),
+                firstName: fields.firstName.value,
+                lastName: fields.lastName.value,
+                message: sendToMe ? '' : fields.message.value
+            })
+        });
+        const purchase = await response.json();
+        $("p[data-target='stripe-serial.serialSpan']").textContent = purchase.serial;
+        show('receipt');
+    });
+
+    $("button[data-action='application#doneAction']").addEventListener('click', () => {
+        window.location.reload();
+    });
+
+    refreshAmount();
+})();